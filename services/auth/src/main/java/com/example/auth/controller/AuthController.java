@@ -9,6 +9,7 @@ import com.example.auth.security.jwt.JwtUtils;
 import com.example.auth.security.request.LoginRequest;
 import com.example.auth.security.request.SignupRequest;
 import com.example.auth.security.response.MessageResponse;
+import com.example.auth.security.response.UserContactResponse;
 import com.example.auth.security.response.UserInfoResponse;
 import com.example.auth.security.services.UserDetailsImpl;
 import jakarta.validation.Valid;
@@ -37,6 +38,8 @@ public class AuthController {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
+    private static final int MAX_CONTACT_LOOKUP = 1000;
+
     @Autowired
     private JwtUtils jwtUtils;
 
@@ -196,6 +199,19 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    // Contact details of many users in one call, for batch jobs in other services. Unknown ids are
+    // left out of the result. Only callers with the internal token get here (see WebSecurityConfig).
+    @PostMapping("/contacts")
+    public ResponseEntity<?> getUserContacts(@RequestBody Set<Long> ids) {
+        if (ids.size() > MAX_CONTACT_LOOKUP) {
+            return ResponseEntity.badRequest()
+                .body(new MessageResponse("At most " + MAX_CONTACT_LOOKUP + " ids per request"));
+        }
+        List<UserContactResponse> contacts = ids.isEmpty() ? List.of() : userRepository.findContactsByIdIn(ids);
+        logger.info("Resolved {} of {} user contacts", contacts.size(), ids.size());
+        return ResponseEntity.ok(contacts);
+    }
+
     @PostMapping("/signout")
     public ResponseEntity<?> signoutUser(){
         logger.info("Processing user sign-out");
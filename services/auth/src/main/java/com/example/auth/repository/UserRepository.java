@@ -1,11 +1,16 @@
 package com.example.auth.repository;
 
 import com.example.auth.entity.User;
+import com.example.auth.security.response.UserContactResponse;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,6 +29,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Cacheable(value = "users", key = "#id")
     Optional<User> findById(Long id);
 
+    // Projection, so roles are not loaded for every user
+    @Query("SELECT new com.example.auth.security.response.UserContactResponse(u.userId, u.userName, u.email) " +
+           "FROM User u WHERE u.userId IN :ids")
+    List<UserContactResponse> findContactsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Override
     @CacheEvict(value = {"users", "userDetails"}, allEntries = true)
     <S extends User> S save(S entity);
@@ -0,0 +1,31 @@
+package com.example.auth.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+
+// Grants endpoints meant for other services only to requests carrying the shared internal token.
+// Without a configured token nothing is granted.
+public class InternalCallerAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    public static final String TOKEN_HEADER = "X-Internal-Token";
+
+    private final byte[] token;
+
+    public InternalCallerAuthorizationManager(String token) {
+        this.token = token == null ? new byte[0] : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        String presented = context.getRequest().getHeader(TOKEN_HEADER);
+        boolean granted = token.length > 0 && presented != null
+            && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+        return new AuthorizationDecision(granted);
+    }
+}
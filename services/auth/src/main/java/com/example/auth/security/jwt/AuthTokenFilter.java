@@ -1,5 +1,6 @@
 package com.example.auth.security.jwt;
 import com.example.auth.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,8 +33,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         logger.debug("AuthTokenFilter called for URI: {}", request.getRequestURI());
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            String username = jwt != null ? jwtUtils.verifyClaims(jwt).map(Claims::getSubject).orElse(null) : null;
+            if (username != null) {
 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
@@ -4,6 +4,8 @@ import com.example.auth.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
@@ -14,8 +16,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 public class JwtUtils {
@@ -30,6 +41,21 @@ public class JwtUtils {
     @Value("${spring.ecom.app.jwtCookieName}")
     private String jwtCookie;
 
+    // Recently verified tokens, so a client repeating its cookie skips the signature check
+    @Value("${spring.app.jwtCacheSize:1000}")
+    private int jwtCacheSize;
+
+    private SecretKey key;
+    private JwtParser parser;
+    private VerifiedTokens verified;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(key).build();
+        verified = new VerifiedTokens(jwtCacheSize);
+    }
+
     public String getJwtFromCookies(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, jwtCookie);
         if (cookie != null) {
@@ -62,34 +88,141 @@ public class JwtUtils {
             .subject(username)
             .issuedAt(new Date())
             .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-            .signWith(key())
+            .signWith(key)
             .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-            .verifyWith((SecretKey) key())
-            .build().parseSignedClaims(token)
-            .getPayload().getSubject();
-    }
-
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
+    // Claims of a token with a valid signature that has not expired. A token seen recently is
+    // answered from the cache until its own expiry, without being parsed again.
+    public Optional<Claims> verifyClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return Optional.empty();
+        }
+        String hash = hash(token);
+        Claims claims = verified.get(hash);
+        if (claims != null) {
+            if (!isExpired(claims)) {
+                return Optional.of(claims);
+            }
+            verified.remove(hash);
+            logger.error("JWT token is expired: {}", claims.getExpiration());
+            return Optional.empty();
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
-            return true;
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+            return Optional.empty();
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
+            return Optional.empty();
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+            return Optional.empty();
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
+            return Optional.empty();
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+            return Optional.empty();
+        } catch (JwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+            return Optional.empty();
+        }
+        verified.put(hash, claims);
+        return Optional.of(claims);
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return verifyClaims(token).map(Claims::getSubject).orElse(null);
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return verifyClaims(authToken).isPresent();
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && !claims.getExpiration().after(new Date());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Claims keyed by token hash, so raw tokens are not kept in memory. Lookups take no lock and
+    // only stamp the entry; once the cache holds more than capacity entries, one inserting thread
+    // evicts the least recently used tenth in a single pass.
+    private static final class VerifiedTokens {
+
+        private final int capacity;
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+
+        private VerifiedTokens(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private Claims get(String hash) {
+            Entry entry = entries.get(hash);
+            if (entry == null) {
+                return null;
+            }
+            entry.lastUsed = System.nanoTime();
+            return entry.claims;
+        }
+
+        private void put(String hash, Claims claims) {
+            if (capacity <= 0) {
+                return;
+            }
+            entries.put(hash, new Entry(claims, System.nanoTime()));
+            if (entries.size() > capacity && evicting.compareAndSet(false, true)) {
+                try {
+                    evict(entries.size() - (capacity - capacity / 10));
+                } finally {
+                    evicting.set(false);
+                }
+            }
+        }
+
+        private void remove(String hash) {
+            entries.remove(hash);
+        }
+
+        // Keeps the count oldest entries in a heap whose head is the newest of them. Stamps are
+        // copied, as lookups keep moving them during the scan.
+        private void evict(int count) {
+            PriorityQueue<Candidate> oldest = new PriorityQueue<>(count, Comparator.comparingLong(Candidate::lastUsed).reversed());
+            entries.forEach((hash, entry) -> {
+                oldest.add(new Candidate(hash, entry, entry.lastUsed));
+                if (oldest.size() > count) {
+                    oldest.poll();
+                }
+            });
+            for (Candidate candidate : oldest) {
+                entries.remove(candidate.hash(), candidate.entry());
+            }
+        }
+    }
+
+    private record Candidate(String hash, Entry entry, long lastUsed) {
+    }
+
+    private static final class Entry {
+
+        private final Claims claims;
+        private volatile long lastUsed;
+
+        private Entry(Claims claims, long lastUsed) {
+            this.claims = claims;
+            this.lastUsed = lastUsed;
         }
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,5 @@
+package com.example.auth.security.response;
+
+// Contact details only, for services that resolve many users at once
+public record UserContactResponse(Long id, String userName, String email) {
+}
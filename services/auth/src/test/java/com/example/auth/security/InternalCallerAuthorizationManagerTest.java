@@ -0,0 +1,41 @@
+package com.example.auth.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InternalCallerAuthorizationManagerTest {
+
+    private static final String TOKEN = "internal-secret";
+
+    @Test
+    void grantsRequestWithTheToken() {
+        assertTrue(granted(TOKEN, TOKEN));
+    }
+
+    @Test
+    void deniesRequestWithoutOrWithAnotherToken() {
+        assertFalse(granted(TOKEN, null));
+        assertFalse(granted(TOKEN, "internal-secre"));
+        assertFalse(granted(TOKEN, ""));
+    }
+
+    @Test
+    void deniesEverythingWhenNoTokenIsConfigured() {
+        assertFalse(granted("", ""));
+        assertFalse(granted(null, "anything"));
+    }
+
+    private static boolean granted(String configured, String presented) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/contacts");
+        if (presented != null) {
+            request.addHeader(InternalCallerAuthorizationManager.TOKEN_HEADER, presented);
+        }
+        return new InternalCallerAuthorizationManager(configured)
+            .check(() -> null, new RequestAuthorizationContext(request))
+            .isGranted();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.auth.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(
+        "a-test-secret-that-is-long-enough-for-hs256".getBytes());
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString(
+        "another-secret-that-is-long-enough-for-hs256".getBytes());
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = jwtUtils(SECRET, 60_000, 1000);
+    }
+
+    @Test
+    void acceptsValidToken() {
+        String token = jwtUtils.generateTokenFromUsername("alice");
+
+        assertTrue(jwtUtils.validateJwtToken(token));
+        assertEquals("alice", jwtUtils.getUserNameFromJwtToken(token));
+        // The second lookup is answered from the cache
+        assertEquals("alice", jwtUtils.getUserNameFromJwtToken(token));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String forged = jwtUtils(OTHER_SECRET, 60_000, 1000).generateTokenFromUsername("alice");
+
+        assertFalse(jwtUtils.validateJwtToken(forged));
+        assertNull(jwtUtils.getUserNameFromJwtToken(forged));
+    }
+
+    @Test
+    void rejectsCachedTokenOnceExpired() throws InterruptedException {
+        // Expiry is truncated to the second, so the token lives between 1.5 and 2.5 seconds
+        JwtUtils shortLived = jwtUtils(SECRET, 2500, 1000);
+        String token = shortLived.generateTokenFromUsername("alice");
+        assertTrue(shortLived.validateJwtToken(token));
+        // From here on only the cache can accept the token
+        rotateKey(shortLived);
+        assertTrue(shortLived.validateJwtToken(token));
+
+        Thread.sleep(2600);
+
+        assertFalse(shortLived.validateJwtToken(token));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTokenPastCacheSize() {
+        JwtUtils small = jwtUtils(SECRET, 60_000, 2);
+        String first = small.generateTokenFromUsername("first");
+        String second = small.generateTokenFromUsername("second");
+        String third = small.generateTokenFromUsername("third");
+        assertTrue(small.validateJwtToken(first));
+        assertTrue(small.validateJwtToken(second));
+        assertTrue(small.validateJwtToken(first));
+
+        assertTrue(small.validateJwtToken(third));
+
+        // Cached tokens survive a key change; the evicted one is verified again and fails
+        rotateKey(small);
+        assertTrue(small.validateJwtToken(first));
+        assertTrue(small.validateJwtToken(third));
+        assertFalse(small.validateJwtToken(second));
+    }
+
+    @Test
+    void rejectsMissingToken() {
+        assertFalse(jwtUtils.validateJwtToken(null));
+        assertFalse(jwtUtils.validateJwtToken(""));
+    }
+
+    private static JwtUtils jwtUtils(String secret, int expirationMs, int cacheSize) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(utils, "jwtCacheSize", cacheSize);
+        utils.init();
+        return utils;
+    }
+
+    private static void rotateKey(JwtUtils utils) {
+        ReflectionTestUtils.setField(utils, "parser",
+            Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(OTHER_SECRET))).build());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.gateway.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.reactive.config.ResourceHandlerRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfig implements WebFluxConfigurer {
+
+    @Value("${application.config.static-assets.cache-seconds:300}")
+    private long cacheSeconds;
+
+    @Value("${application.config.static-assets.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // The API docs landing page is served from memory with a gzip variant; browsers reuse it for
+        // cache-seconds, then revalidate by ETag and get a bodyless 304 while it is unchanged
+        registry.addResourceHandler("/swagger-aggregator.html")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofSeconds(cacheSeconds)).cachePublic())
+                .setEtagGenerator(PrecompressedResourceResolver::etag)
+                .resourceChain(true)
+                .addResolver(new PrecompressedResourceResolver(gzipMinBytes));
+    }
+}
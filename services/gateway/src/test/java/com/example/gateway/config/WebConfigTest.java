@@ -0,0 +1,94 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringJUnitConfig(WebConfigTest.WebFluxConfig.class)
+class WebConfigTest {
+
+    private static final String PAGE = "/swagger-aggregator.html";
+
+    @Autowired
+    private ApplicationContext context;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @Test
+    void servesGzipVariantToClientsThatAcceptIt() throws IOException {
+        EntityExchangeResult<byte[]> plain = client.get().uri(PAGE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult();
+        EntityExchangeResult<byte[]> gzip = client.get().uri(PAGE)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(300)).cachePublic())
+                .expectBody().returnResult();
+
+        assertNull(plain.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(plain.getResponseBody(), gunzip(gzip.getResponseBody()));
+        assertNotNull(gzip.getResponseHeaders().getETag());
+        assertNotEquals(plain.getResponseHeaders().getETag(), gzip.getResponseHeaders().getETag());
+    }
+
+    @Test
+    void answersRevalidationWithNotModified() {
+        String etag = client.get().uri(PAGE)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectBody().returnResult()
+                .getResponseHeaders().getETag();
+
+        client.get().uri(PAGE)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void leavesOtherPathsUnhandled() {
+        client.get().uri("/missing.html").exchange().expectStatus().isNotFound();
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Configuration
+    @EnableWebFlux
+    @Import(WebConfig.class)
+    static class WebFluxConfig {
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 @FeignClient(
@@ -17,6 +18,9 @@ public interface AccountClient {
     @GetMapping("/{account-id}")
     Optional<AccountResponse> findAccountById(@PathVariable("account-id") Long accountId);
 
+    @GetMapping("/user/{user-id}/active")
+    List<AccountResponse> findActiveAccountsByUserId(@PathVariable("user-id") Long userId);
+
     @PutMapping("/{account-id}/balance")
     void updateBalance(@PathVariable("account-id") Long accountId, @RequestBody BigDecimal newBalance);
 }
@@ -2,14 +2,23 @@ package com.example.loan.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @FeignClient(
     name = "auth-service",
-    url = "${application.config.auth-url}"
+    url = "${application.config.auth-url}",
+    configuration = AuthClientConfig.class
 )
 public interface AuthClient {
     @GetMapping("/{auth-id}")
     Optional<AuthResponse> findCustomerById(@PathVariable("auth-id") Long authId);
+
+    // At most 1000 ids per call; unknown ids are left out. Needs the internal token AuthClientConfig sends
+    @PostMapping("/contacts")
+    List<AuthResponse> findCustomersByIds(@RequestBody Collection<Long> authIds);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.loan.client;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+// Not a @Configuration on purpose: component scanning would apply the interceptor to every Feign
+// client and hand the internal token to the account and transaction services.
+public class AuthClientConfig {
+
+    public static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+
+    @Bean
+    public RequestInterceptor internalTokenInterceptor(
+            @Value("${application.config.auth-internal-token:}") String internalToken) {
+        return template -> {
+            if (!internalToken.isEmpty()) {
+                template.header(INTERNAL_TOKEN_HEADER, internalToken);
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.loan.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(
+    name = "transaction-service",
+    url = "${application.config.transaction-url}"
+)
+public interface TransactionClient {
+    @GetMapping("/account/{account-id}")
+    TransactionPageResponse findAccountTransactions(@PathVariable("account-id") Long accountId,
+                                                    @RequestParam("page") int page,
+                                                    @RequestParam("size") int size,
+                                                    @RequestParam("sort") String sort);
+}
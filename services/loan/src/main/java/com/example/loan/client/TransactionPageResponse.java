@@ -0,0 +1,10 @@
+package com.example.loan.client;
+
+import java.util.List;
+
+// Subset of the Spring Data page returned by transaction-service
+public record TransactionPageResponse(
+    List<TransactionResponse> content,
+    long totalElements
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.loan.client;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TransactionResponse(
+    Long id,
+    String transactionReference,
+    Long sourceAccountId,
+    Long destinationAccountId,
+    BigDecimal amount,
+    String type,
+    String status,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,110 @@
+package com.example.loan.config;
+
+import com.example.loan.event.LoanEvent;
+import com.example.loan.event.TransactionEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+public class KafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${application.config.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${application.config.kafka.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${application.config.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${application.config.kafka.repayment.max-poll-records:500}")
+    private int repaymentMaxPollRecords;
+
+    @Value("${application.config.kafka.repayment.retry-interval-ms:5000}")
+    private long repaymentRetryIntervalMs;
+
+    // Loan events are keyed by loan id, so batching never reorders events of the same loan
+    @Bean
+    public ProducerFactory<String, LoanEvent> loanEventProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, LoanEvent> loanEventKafkaTemplate() {
+        return new KafkaTemplate<>(loanEventProducerFactory());
+    }
+
+    @Bean
+    public ConsumerFactory<String, TransactionEvent> repaymentConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "loan-repayment-group");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, repaymentMaxPollRecords);
+
+        JsonDeserializer<TransactionEvent> deserializer = new JsonDeserializer<>(TransactionEvent.class, false);
+        deserializer.addTrustedPackages("*");
+
+        return new DefaultKafkaConsumerFactory<>(
+            props,
+            new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(deserializer)
+        );
+    }
+
+    // Micro-batches with manual acks: offsets are committed after the repayment batch is written.
+    // A failing batch (e.g. database down) is redelivered until it succeeds; references make that idempotent.
+    // Errors a retry cannot fix skip the batch instead of blocking the partition, and every skipped
+    // record is logged so it can be replayed.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionEvent> repaymentKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TransactionEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(repaymentConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+            (record, e) -> log.error("Skipping transaction event {}-{}@{}: {}",
+                record.topic(), record.partition(), record.offset(), e.getMessage()),
+            new FixedBackOff(repaymentRetryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS));
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class, NullPointerException.class);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+}
\ No newline at end of file
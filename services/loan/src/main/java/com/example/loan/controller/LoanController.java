@@ -1,5 +1,6 @@
 package com.example.loan.controller;
 
+import com.example.loan.dto.LoanEligibilityResponseDto;
 import com.example.loan.dto.LoanRequestDto;
 import com.example.loan.dto.LoanResponseDto;
 import com.example.loan.dto.PaymentRequestDto;
@@ -32,4 +33,10 @@ public class LoanController {
         LoanResponseDto response = loanService.makePayment(paymentRequestDto);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/eligibility")
+    public ResponseEntity<LoanEligibilityResponseDto> checkEligibility(@RequestBody LoanRequestDto loanRequestDto) {
+        LoanEligibilityResponseDto response = loanService.checkEligibility(loanRequestDto);
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.loan.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class LoanEligibilityResponseDto {
+    private Long authId;
+    private Long accountId;
+    private BigDecimal requestedAmount;
+    private boolean eligible;
+    private BigDecimal maxEligibleAmount;
+    private BigDecimal totalBalance;
+    private BigDecimal recentTransactionVolume;
+    private BigDecimal outstandingLoanBalance;
+    private Integer openLoanCount;
+    private List<String> reasons = new ArrayList<>();
+    private long evaluationMillis;
+}
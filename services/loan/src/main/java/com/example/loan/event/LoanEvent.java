@@ -0,0 +1,31 @@
+package com.example.loan.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanEvent {
+    private String eventId;
+    private String eventType; // LOAN_APPLIED, LOAN_DISBURSED, LOAN_PAYMENT, LOAN_OVERDUE, LOAN_PAID, LOAN_DUE_REMINDER
+    private Long loanId;
+    private Long authId;
+    private Long accountId;
+    private BigDecimal amount;
+    private BigDecimal paymentAmount;
+    private Integer tenureMonths;
+    private BigDecimal balance;
+    private LocalDate dueDate;
+    private String status;
+    private String email;
+    private String reminderType; // DUE_IN_7_DAYS, DUE_IN_1_DAY, OVERDUE_1_DAY
+    private LocalDateTime createdAt;
+}
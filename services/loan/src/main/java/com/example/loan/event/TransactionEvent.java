@@ -0,0 +1,26 @@
+package com.example.loan.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Shape of the records transaction-service publishes to transaction-events
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionEvent {
+    private String transactionReference;
+    private Long sourceAccountId;
+    private Long destinationAccountId;
+    private BigDecimal amount;
+    private String type;
+    private String status;
+    private String description;
+    private Long userId;
+    private String email;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -10,7 +10,9 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+    @Index(name = "idx_loans_due_date_status", columnList = "due_date, status, id")
+})
 public class Loan {
 
     @Id
@@ -39,6 +41,11 @@ public class Loan {
     @Enumerated(EnumType.STRING)
     private LoanStatus status;
 
+    // Optimistic lock version; payments are applied as conditional updates guarded by it
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public enum LoanStatus {
         ACTIVE,
         PAID,
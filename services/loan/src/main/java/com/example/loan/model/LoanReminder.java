@@ -0,0 +1,57 @@
+package com.example.loan.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row per reminder the broker acknowledged; the unique key keeps parallel schedulers from
+// recording it twice
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "loan_reminders", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_loan_reminders_loan_type_due", columnNames = {"loan_id", "reminder_type", "due_date"})
+})
+public class LoanReminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "loan_id", nullable = false)
+    private Long loanId;
+
+    @Column(name = "reminder_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ReminderType reminderType;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+
+    public enum ReminderType {
+        DUE_IN_7_DAYS(-7),
+        DUE_IN_1_DAY(-1),
+        OVERDUE_1_DAY(1);
+
+        // Offset of the reminder day relative to the due date (T-7, T-1, T+1)
+        private final int daysFromDueDate;
+
+        ReminderType(int daysFromDueDate) {
+            this.daysFromDueDate = daysFromDueDate;
+        }
+
+        public LocalDate dueDateFor(LocalDate today) {
+            return today.minusDays(daysFromDueDate);
+        }
+    }
+}
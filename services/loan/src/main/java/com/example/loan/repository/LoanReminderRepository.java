@@ -0,0 +1,21 @@
+package com.example.loan.repository;
+
+import com.example.loan.model.LoanReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+@Repository
+public interface LoanReminderRepository extends JpaRepository<LoanReminder, Long> {
+
+    @Query("SELECT r.loanId FROM LoanReminder r " +
+           "WHERE r.reminderType = :type AND r.dueDate = :dueDate AND r.loanId IN :loanIds")
+    Set<Long> findRemindedLoanIds(@Param("type") LoanReminder.ReminderType type,
+                                  @Param("dueDate") LocalDate dueDate,
+                                  @Param("loanIds") Collection<Long> loanIds);
+}
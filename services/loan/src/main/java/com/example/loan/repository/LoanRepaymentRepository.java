@@ -0,0 +1,17 @@
+package com.example.loan.repository;
+
+import com.example.loan.model.LoanRepayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+@Repository
+public interface LoanRepaymentRepository extends JpaRepository<LoanRepayment, Long> {
+
+    @Query("SELECT r.transactionReference FROM LoanRepayment r WHERE r.transactionReference IN :references")
+    Set<String> findExistingReferences(@Param("references") Collection<String> references);
+}
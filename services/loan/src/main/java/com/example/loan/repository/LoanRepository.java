@@ -1,9 +1,50 @@
 package com.example.loan.repository;
 
 import com.example.loan.model.Loan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
-}
\ No newline at end of file
+
+    List<Loan> findByAuthIdAndStatusIn(Long authId, Collection<Loan.LoanStatus> statuses);
+
+    // Keyset page over idx_loans_due_date_status
+    List<Loan> findByDueDateAndStatusInAndIdGreaterThanOrderByIdAsc(LocalDate dueDate,
+                                                                    Collection<Loan.LoanStatus> statuses,
+                                                                    Long afterId,
+                                                                    Limit limit);
+
+    // Applies a payment only if the loan is still at the expected version and the balance covers it.
+    // Returns the number of updated rows (0 means a concurrent change or insufficient balance).
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Loan l SET l.balance = l.balance - :amount, " +
+           "l.status = CASE WHEN l.balance - :amount = 0 THEN :paidStatus ELSE l.status END, " +
+           "l.version = l.version + 1 " +
+           "WHERE l.id = :loanId AND l.version = :version AND l.balance >= :amount")
+    int applyPayment(@Param("loanId") Long loanId,
+                     @Param("amount") BigDecimal amount,
+                     @Param("version") Long version,
+                     @Param("paidStatus") Loan.LoanStatus paidStatus);
+
+    // Moves an active, unpaid loan past its due date to OVERDUE; returns 1 only for the caller that made the transition
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = :overdueStatus, l.version = l.version + 1 " +
+           "WHERE l.id = :loanId AND l.status = :activeStatus AND l.dueDate < :today AND l.balance > 0")
+    int markOverdue(@Param("loanId") Long loanId,
+                    @Param("today") LocalDate today,
+                    @Param("activeStatus") Loan.LoanStatus activeStatus,
+                    @Param("overdueStatus") Loan.LoanStatus overdueStatus);
+}
@@ -0,0 +1,78 @@
+package com.example.loan.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Minimal structured fan-out on virtual threads, in the spirit of StructuredTaskScope.ShutdownOnFailure
+// (still a preview API on Java 21): subtasks share one deadline, the first failure cancels the siblings,
+// and closing the scope never leaves a subtask running.
+final class FanOutScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> subtasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private final Instant deadline;
+
+    FanOutScope(Duration timeout) {
+        this.deadline = Instant.now().plus(timeout);
+    }
+
+    <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = executor.submit(() -> {
+            try {
+                return task.call();
+            } catch (Throwable t) {
+                if (firstFailure.compareAndSet(null, t)) {
+                    cancelAll();
+                }
+                throw t;
+            }
+        });
+        subtasks.add(future);
+        return future;
+    }
+
+    // Waits for every subtask, the first failure, or the deadline, whichever comes first
+    void join() throws ExecutionException, TimeoutException, InterruptedException {
+        for (Future<?> subtask : subtasks) {
+            long remainingNanos = Duration.between(Instant.now(), deadline).toNanos();
+            if (remainingNanos <= 0) {
+                cancelAll();
+                throw new TimeoutException("Fan-out deadline exceeded");
+            }
+            try {
+                subtask.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw e;
+            } catch (ExecutionException | CancellationException e) {
+                break;
+            }
+        }
+        Throwable failure = firstFailure.get();
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+    }
+
+    private void cancelAll() {
+        subtasks.forEach(subtask -> subtask.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.loan.service;
+
+import com.example.loan.client.AccountClient;
+import com.example.loan.client.AccountResponse;
+import com.example.loan.client.AuthClient;
+import com.example.loan.client.AuthResponse;
+import com.example.loan.client.TransactionClient;
+import com.example.loan.client.TransactionPageResponse;
+import com.example.loan.client.TransactionResponse;
+import com.example.loan.dto.LoanEligibilityResponseDto;
+import com.example.loan.dto.LoanRequestDto;
+import com.example.loan.exception.LoanServiceException;
+import com.example.loan.model.Loan;
+import com.example.loan.repository.LoanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanEligibilityService {
+
+    private static final BigDecimal BALANCE_MULTIPLIER = new BigDecimal("2");
+    private static final BigDecimal VOLUME_FACTOR = new BigDecimal("0.5");
+    private static final int RECENT_TRANSACTION_DAYS = 90;
+    private static final int RECENT_TRANSACTION_PAGE_SIZE = 100;
+
+    private final AuthClient authClient;
+    private final AccountClient accountClient;
+    private final TransactionClient transactionClient;
+    private final LoanRepository loanRepository;
+
+    @Value("${application.config.loan.eligibility.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${application.config.loan.eligibility.max-open-loans:3}")
+    private int maxOpenLoans;
+
+    public LoanEligibilityResponseDto evaluate(LoanRequestDto request) {
+        if (request.getAuthId() == null || request.getAccountId() == null || request.getAmount() == null) {
+            throw new LoanServiceException("authId, accountId and amount are required");
+        }
+        long started = System.nanoTime();
+
+        // All lookups run at once; latency is the slowest dependency, bounded by one deadline
+        Future<Optional<AuthResponse>> customerTask;
+        Future<Optional<AccountResponse>> accountTask;
+        Future<List<AccountResponse>> activeAccountsTask;
+        Future<BigDecimal> volumeTask;
+        Future<List<Loan>> openLoansTask;
+        try (FanOutScope scope = new FanOutScope(Duration.ofMillis(timeoutMs))) {
+            customerTask = scope.fork(() -> authClient.findCustomerById(request.getAuthId()));
+            accountTask = scope.fork(() -> accountClient.findAccountById(request.getAccountId()));
+            activeAccountsTask = scope.fork(() -> fetchActiveAccounts(request.getAuthId()));
+            volumeTask = scope.fork(() -> fetchRecentVolume(request.getAccountId()));
+            openLoansTask = scope.fork(() -> loanRepository.findByAuthIdAndStatusIn(
+                request.getAuthId(), EnumSet.of(Loan.LoanStatus.ACTIVE, Loan.LoanStatus.OVERDUE)));
+            scope.join();
+        } catch (TimeoutException e) {
+            throw new LoanServiceException("Eligibility check timed out after " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            log.warn("Eligibility lookup failed for customer {}: {}", request.getAuthId(), e.getCause().getMessage());
+            throw new LoanServiceException("Eligibility check failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoanServiceException("Eligibility check interrupted");
+        }
+
+        LoanEligibilityResponseDto response = decide(request,
+            customerTask.resultNow(), accountTask.resultNow(), activeAccountsTask.resultNow(),
+            volumeTask.resultNow(), openLoansTask.resultNow());
+        response.setEvaluationMillis(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return response;
+    }
+
+    private LoanEligibilityResponseDto decide(LoanRequestDto request,
+                                              Optional<AuthResponse> customer,
+                                              Optional<AccountResponse> account,
+                                              List<AccountResponse> activeAccounts,
+                                              BigDecimal recentVolume,
+                                              List<Loan> openLoans) {
+        LoanEligibilityResponseDto response = new LoanEligibilityResponseDto();
+        response.setAuthId(request.getAuthId());
+        response.setAccountId(request.getAccountId());
+        response.setRequestedAmount(request.getAmount());
+
+        if (customer.isEmpty()) {
+            response.getReasons().add("Customer not found");
+        }
+        if (account.isEmpty()) {
+            response.getReasons().add("Account not found");
+        } else {
+            if (!account.get().isActive()) {
+                response.getReasons().add("Account is not active");
+            }
+            if (!Objects.equals(account.get().userId(), request.getAuthId())) {
+                response.getReasons().add("Account does not belong to customer");
+            }
+        }
+        if (openLoans.size() >= maxOpenLoans) {
+            response.getReasons().add("Customer already has " + openLoans.size() + " open loans");
+        }
+        if (openLoans.stream().anyMatch(loan -> loan.getStatus() == Loan.LoanStatus.OVERDUE)) {
+            response.getReasons().add("Customer has an overdue loan");
+        }
+
+        // Active accounts are best effort; fall back to the disbursement account alone
+        List<AccountResponse> balances = activeAccounts != null ? activeAccounts : account.map(List::of).orElse(List.of());
+        BigDecimal totalBalance = balances.stream()
+            .map(AccountResponse::balance)
+            .filter(Objects::nonNull)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal outstanding = openLoans.stream()
+            .map(Loan::getBalance)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (recentVolume == null) {
+            response.getReasons().add("Transaction history unavailable");
+        }
+
+        BigDecimal capacity = totalBalance.multiply(BALANCE_MULTIPLIER)
+            .add(Optional.ofNullable(recentVolume).orElse(BigDecimal.ZERO).multiply(VOLUME_FACTOR))
+            .subtract(outstanding)
+            .max(BigDecimal.ZERO);
+        if (request.getAmount().compareTo(capacity) > 0) {
+            response.getReasons().add("Requested amount exceeds eligible amount of " + capacity);
+        }
+
+        response.setTotalBalance(totalBalance);
+        response.setRecentTransactionVolume(recentVolume);
+        response.setOutstandingLoanBalance(outstanding);
+        response.setOpenLoanCount(openLoans.size());
+        response.setMaxEligibleAmount(capacity);
+        response.setEligible(response.getReasons().isEmpty());
+        return response;
+    }
+
+    private List<AccountResponse> fetchActiveAccounts(Long authId) {
+        try {
+            return accountClient.findActiveAccountsByUserId(authId);
+        } catch (Exception e) {
+            log.debug("Active accounts unavailable for customer {}: {}", authId, e.getMessage());
+            return null;
+        }
+    }
+
+    // Sum of completed transactions on the account over the recent window; null when unavailable
+    private BigDecimal fetchRecentVolume(Long accountId) {
+        try {
+            TransactionPageResponse page = transactionClient.findAccountTransactions(
+                accountId, 0, RECENT_TRANSACTION_PAGE_SIZE, "createdAt,desc");
+            LocalDateTime since = LocalDateTime.now().minusDays(RECENT_TRANSACTION_DAYS);
+            return page.content().stream()
+                .filter(tx -> "COMPLETED".equals(tx.status()))
+                .filter(tx -> tx.createdAt() != null && tx.createdAt().isAfter(since))
+                .map(TransactionResponse::amount)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        } catch (Exception e) {
+            log.debug("Transaction history unavailable for account {}: {}", accountId, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.loan.service;
+
+import com.example.loan.client.AuthClient;
+import com.example.loan.client.AuthResponse;
+import com.example.loan.event.LoanEvent;
+import com.example.loan.model.Loan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanEventPublisher {
+
+    public static final String LOAN_APPLIED = "LOAN_APPLIED";
+    public static final String LOAN_DISBURSED = "LOAN_DISBURSED";
+    public static final String LOAN_PAYMENT = "LOAN_PAYMENT";
+    public static final String LOAN_OVERDUE = "LOAN_OVERDUE";
+    public static final String LOAN_PAID = "LOAN_PAID";
+    public static final String LOAN_DUE_REMINDER = "LOAN_DUE_REMINDER";
+
+    private final KafkaTemplate<String, LoanEvent> loanEventKafkaTemplate;
+    private final AuthClient authClient;
+
+    @Value("${application.config.kafka.loan-topic:loan-events}")
+    private String loanTopic;
+
+    public void publishLoanApplied(Loan loan, String email) {
+        publish(buildEvent(LOAN_APPLIED, loan, null, email));
+    }
+
+    public void publishLoanDisbursed(Loan loan, String email) {
+        publish(buildEvent(LOAN_DISBURSED, loan, null, email));
+    }
+
+    public void publishPayment(Loan loan, BigDecimal paymentAmount) {
+        publishPayment(loan, paymentAmount, null);
+    }
+
+    public void publishPayment(Loan loan, BigDecimal paymentAmount, String knownEmail) {
+        String email = knownEmail != null ? knownEmail : resolveEmail(loan.getAuthId());
+        publish(buildEvent(LOAN_PAYMENT, loan, paymentAmount, email));
+        if (loan.getStatus() == Loan.LoanStatus.PAID) {
+            publish(buildEvent(LOAN_PAID, loan, paymentAmount, email));
+        }
+    }
+
+    public void publishOverdue(Loan loan) {
+        publish(buildEvent(LOAN_OVERDUE, loan, null, resolveEmail(loan.getAuthId())));
+    }
+
+    // Returns the send future so batch callers can wait for the whole page to be acknowledged. The
+    // event id is derived from the loan, reminder and due date, so publishing it again after a crash
+    // is dropped by the notification service's dedupe.
+    public CompletableFuture<?> publishReminder(Loan loan, String reminderType, String email) {
+        LoanEvent event = buildEvent(LOAN_DUE_REMINDER, loan, null, email);
+        event.setEventId("reminder:" + loan.getId() + ":" + reminderType + ":" + loan.getDueDate());
+        event.setReminderType(reminderType);
+        return publish(event);
+    }
+
+    // Emails of many customers with one auth-service call; customers without one are left out.
+    // Throws when auth-service cannot be reached.
+    public Map<Long, String> resolveEmails(Collection<Long> authIds) {
+        if (authIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> emails = new HashMap<>();
+        for (AuthResponse customer : authClient.findCustomersByIds(authIds)) {
+            if (customer.id() != null && customer.email() != null) {
+                emails.put(Long.valueOf(customer.id()), customer.email());
+            }
+        }
+        return emails;
+    }
+
+    private LoanEvent buildEvent(String eventType, Loan loan, BigDecimal paymentAmount, String email) {
+        return LoanEvent.builder()
+            .eventId(UUID.randomUUID().toString())
+            .eventType(eventType)
+            .loanId(loan.getId())
+            .authId(loan.getAuthId())
+            .accountId(loan.getAccountId())
+            .amount(loan.getAmount())
+            .paymentAmount(paymentAmount)
+            .tenureMonths(loan.getTenureMonths())
+            .balance(loan.getBalance())
+            .dueDate(loan.getDueDate())
+            .status(loan.getStatus().name())
+            .email(email)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+
+    // Sends are asynchronous; a broker problem must never fail the loan operation itself
+    private CompletableFuture<?> publish(LoanEvent event) {
+        try {
+            return loanEventKafkaTemplate.send(loanTopic, String.valueOf(event.getLoanId()), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish {} for loan {}: {}", event.getEventType(), event.getLoanId(), ex.getMessage());
+                    } else {
+                        log.debug("Published {} for loan {}", event.getEventType(), event.getLoanId());
+                    }
+                });
+        } catch (Exception e) {
+            log.error("Error publishing {} for loan {}: {}", event.getEventType(), event.getLoanId(), e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String resolveEmail(Long authId) {
+        try {
+            return authClient.findCustomerById(authId).map(AuthResponse::email).orElse(null);
+        } catch (Exception e) {
+            log.warn("Could not resolve email for customer {}: {}", authId, e.getMessage());
+            return null;
+        }
+    }
+}
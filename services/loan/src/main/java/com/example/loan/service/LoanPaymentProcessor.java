@@ -0,0 +1,67 @@
+package com.example.loan.service;
+
+import com.example.loan.exception.LoanServiceException;
+import com.example.loan.model.Loan;
+import com.example.loan.repository.LoanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Applies loan payments without row locks: each attempt reads the loan, then issues a
+// version- and balance-guarded UPDATE. A lost race is retried a bounded number of times.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoanPaymentProcessor {
+
+    private final LoanRepository loanRepository;
+
+    @Value("${application.config.loan.payment-max-attempts:3}")
+    private int maxAttempts;
+
+    public Loan applyPayment(Long loanId, BigDecimal paymentAmount) {
+        if (paymentAmount == null || paymentAmount.signum() <= 0) {
+            throw new LoanServiceException("Payment amount must be positive");
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            Loan loan = loanRepository.findById(loanId)
+                .orElseThrow(() -> new LoanServiceException("Loan not found"));
+
+            if (paymentAmount.compareTo(loan.getBalance()) > 0) {
+                throw new LoanServiceException("Payment amount exceeds loan balance");
+            }
+
+            int updated = loanRepository.applyPayment(loanId, paymentAmount, loan.getVersion(), Loan.LoanStatus.PAID);
+            if (updated == 1) {
+                // Mirror the committed row instead of reading it back
+                loan.setBalance(loan.getBalance().subtract(paymentAmount));
+                loan.setVersion(loan.getVersion() + 1);
+                if (loan.getBalance().compareTo(BigDecimal.ZERO) == 0) {
+                    loan.setStatus(Loan.LoanStatus.PAID);
+                }
+                return loan;
+            }
+
+            if (attempt >= maxAttempts) {
+                log.warn("Payment on loan {} gave up after {} concurrent update conflicts", loanId, attempt);
+                throw new LoanServiceException("Loan was updated concurrently, please retry the payment");
+            }
+            log.debug("Version conflict applying payment to loan {}, attempt {}", loanId, attempt);
+            backOff(attempt);
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 25) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoanServiceException("Payment interrupted");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.loan.service;
+
+import com.example.loan.model.Loan;
+import com.example.loan.model.LoanReminder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Sends T-7, T-1 and T+1 due-date reminders. Loans are scanned in bounded keyset pages. Each page
+// resolves its customers' emails with one auth-service call, publishes its reminder events as one
+// batch, and records in the loan_reminders ledger only those the broker acknowledged. Delivery is
+// at least once: a crash between publishing and recording publishes the page again on the next
+// run, and the repeated events carry the same event id, so notification-service drops them.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoanReminderScheduler {
+
+    private final LoanReminderService loanReminderService;
+    private final LoanEventPublisher loanEventPublisher;
+
+    @Value("${application.config.loan.reminders.page-size:500}")
+    private int pageSize;
+
+    @Value("${application.config.loan.reminders.publish-timeout-ms:30000}")
+    private long publishTimeoutMs;
+
+    @Scheduled(cron = "${application.config.loan.reminders.cron:0 0 8 * * *}")
+    public void sendDueDateReminders() {
+        LocalDate today = LocalDate.now();
+        for (LoanReminder.ReminderType type : LoanReminder.ReminderType.values()) {
+            int sent = sendReminders(type, type.dueDateFor(today));
+            log.info("Sent {} {} reminders", sent, type);
+        }
+    }
+
+    int sendReminders(LoanReminder.ReminderType type, LocalDate dueDate) {
+        int sent = 0;
+        Long afterId = 0L;
+        boolean last = false;
+        while (!last) {
+            LoanReminderService.ReminderPage page = loanReminderService.findPage(type, dueDate, afterId, pageSize);
+            if (!page.toRemind().isEmpty()) {
+                sent += publishPage(type, dueDate, page.toRemind());
+            }
+            afterId = page.lastLoanId();
+            last = page.last();
+        }
+        return sent;
+    }
+
+    private int publishPage(LoanReminder.ReminderType type, LocalDate dueDate, List<Loan> loans) {
+        Map<Long, String> emails;
+        try {
+            emails = loanEventPublisher.resolveEmails(loans.stream().map(Loan::getAuthId).distinct().toList());
+        } catch (Exception e) {
+            log.warn("Could not resolve emails for {} {} reminders, retrying next run: {}", loans.size(), type, e.getMessage());
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = loans.stream()
+            .<CompletableFuture<?>>map(loan -> loanEventPublisher.publishReminder(loan, type.name(), emails.get(loan.getAuthId())))
+            .toList();
+
+        List<Long> published = new ArrayList<>(loans.size());
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+                published.add(loans.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Not recorded, so the next run publishes it again
+            }
+        }
+
+        loanReminderService.recordSent(type, dueDate, published);
+        if (published.size() < loans.size()) {
+            log.warn("{} {} reminders could not be published and will be retried next run",
+                loans.size() - published.size(), type);
+        }
+        return published.size();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.loan.service;
+
+import com.example.loan.model.Loan;
+import com.example.loan.model.LoanReminder;
+import com.example.loan.repository.LoanReminderRepository;
+import com.example.loan.repository.LoanRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class LoanReminderService {
+
+    private static final Set<Loan.LoanStatus> REMINDABLE = EnumSet.of(Loan.LoanStatus.ACTIVE, Loan.LoanStatus.OVERDUE);
+
+    // Another instance may have recorded the same reminder meanwhile
+    private static final String RECORD_SENT = """
+        INSERT INTO loan_reminders (loan_id, reminder_type, due_date, sent_at) VALUES (?, ?, ?, ?)
+        ON CONFLICT (loan_id, reminder_type, due_date) DO NOTHING
+        """;
+
+    private final LoanRepository loanRepository;
+    private final LoanReminderRepository loanReminderRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ReminderPage(List<Loan> toRemind, Long lastLoanId, boolean last) {
+    }
+
+    // Reads one keyset page and leaves out the loans already reminded
+    @Transactional(readOnly = true)
+    public ReminderPage findPage(LoanReminder.ReminderType type, LocalDate dueDate, Long afterId, int pageSize) {
+        List<Loan> page = loanRepository.findByDueDateAndStatusInAndIdGreaterThanOrderByIdAsc(
+            dueDate, REMINDABLE, afterId, Limit.of(pageSize));
+        if (page.isEmpty()) {
+            return new ReminderPage(List.of(), afterId, true);
+        }
+
+        Set<Long> alreadySent = loanReminderRepository.findRemindedLoanIds(
+            type, dueDate, page.stream().map(Loan::getId).toList());
+        List<Loan> toRemind = page.stream()
+            .filter(loan -> !alreadySent.contains(loan.getId()))
+            .toList();
+        return new ReminderPage(toRemind, page.get(page.size() - 1).getId(), page.size() < pageSize);
+    }
+
+    // Called once the broker acknowledged the reminders
+    @Transactional
+    public void recordSent(LoanReminder.ReminderType type, LocalDate dueDate, Collection<Long> loanIds) {
+        if (loanIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(RECORD_SENT, loanIds.stream()
+            .map(loanId -> new Object[]{loanId, type.name(), Date.valueOf(dueDate), now})
+            .toList());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.loan.service;
+
+import com.example.loan.event.TransactionEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Turns completed deposits tagged with a loan reference (e.g. "LOAN-42" in the description) into repayments.
+// Only deposits into the bank's repayment account count: that money never reaches a customer's
+// spendable balance, so nothing is debited, and a reference in a deposit to any other account,
+// including one's own, pays nothing. Without a repayment account no deposit is matched.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoanRepaymentConsumer {
+
+    private final LoanRepaymentService loanRepaymentService;
+    private final LoanEventPublisher loanEventPublisher;
+
+    @Value("${application.config.loan.repayment-reference-pattern:LOAN-(\\d{1,18})(?!\\d)}")
+    private String referencePattern;
+
+    @Value("${application.config.loan.repayment-account-id:#{null}}")
+    private Long repaymentAccountId;
+
+    private Pattern pattern;
+
+    @PostConstruct
+    void compilePattern() {
+        pattern = Pattern.compile(referencePattern, Pattern.CASE_INSENSITIVE);
+        if (repaymentAccountId == null) {
+            log.warn("No loan repayment account configured; deposits will not be matched to loans");
+        }
+    }
+
+    @KafkaListener(
+        topics = "${application.config.kafka.transaction-topic:transaction-events}",
+        groupId = "loan-repayment-group",
+        containerFactory = "repaymentKafkaListenerContainerFactory"
+    )
+    public void consumeTransactionEvents(List<TransactionEvent> events, Acknowledgment acknowledgment) {
+        List<LoanRepaymentService.RepaymentMatch> matches = events.stream()
+            .filter(Objects::nonNull)
+            .map(this::match)
+            .filter(Objects::nonNull)
+            .toList();
+
+        if (!matches.isEmpty()) {
+            List<LoanRepaymentService.AppliedRepayment> applied = loanRepaymentService.applyRepayments(matches);
+            log.info("Applied {} of {} loan repayments from a batch of {} transaction events",
+                applied.size(), matches.size(), events.size());
+            applied.forEach(repayment -> loanEventPublisher.publishPayment(repayment.loan(), repayment.amount(), repayment.email()));
+        }
+
+        // Offsets are committed only once the repayments are durable
+        acknowledgment.acknowledge();
+    }
+
+    private LoanRepaymentService.RepaymentMatch match(TransactionEvent event) {
+        if (!"DEPOSIT".equals(event.getType()) || !"COMPLETED".equals(event.getStatus())
+            || repaymentAccountId == null || !repaymentAccountId.equals(event.getDestinationAccountId())
+            || event.getDescription() == null || event.getTransactionReference() == null
+            || event.getAmount() == null) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(event.getDescription());
+        if (!matcher.find()) {
+            return null;
+        }
+        // The configured pattern may allow more digits than a loan id has; such a deposit is left unmatched
+        Long loanId;
+        try {
+            loanId = Long.valueOf(matcher.group(1));
+        } catch (NumberFormatException e) {
+            log.warn("Deposit {} has an unusable loan reference: {}", event.getTransactionReference(), matcher.group());
+            return null;
+        }
+        return new LoanRepaymentService.RepaymentMatch(
+            loanId, event.getTransactionReference(), event.getAmount(), event.getEmail());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.loan.service;
+
+import com.example.loan.exception.LoanServiceException;
+import com.example.loan.model.Loan;
+import com.example.loan.model.LoanRepayment;
+import com.example.loan.repository.LoanRepaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanRepaymentService {
+
+    private final LoanPaymentProcessor loanPaymentProcessor;
+    private final LoanRepaymentRepository loanRepaymentRepository;
+
+    public record RepaymentMatch(Long loanId, String transactionReference, BigDecimal amount, String email) {
+    }
+
+    public record AppliedRepayment(Loan loan, BigDecimal amount, String email) {
+    }
+
+    // Applies one micro-batch in a single transaction; references already applied are skipped,
+    // and a repayment that cannot be applied is logged without failing the rest of the batch
+    @Transactional
+    public List<AppliedRepayment> applyRepayments(List<RepaymentMatch> matches) {
+        Set<String> seen = new HashSet<>(loanRepaymentRepository.findExistingReferences(
+            matches.stream().map(RepaymentMatch::transactionReference).toList()));
+
+        List<LoanRepayment> records = new ArrayList<>();
+        List<AppliedRepayment> applied = new ArrayList<>();
+        for (RepaymentMatch match : matches) {
+            if (!seen.add(match.transactionReference())) {
+                log.debug("Repayment {} already applied, skipping", match.transactionReference());
+                continue;
+            }
+            try {
+                Loan loan = loanPaymentProcessor.applyPayment(match.loanId(), match.amount());
+                records.add(LoanRepayment.builder()
+                    .loanId(match.loanId())
+                    .transactionReference(match.transactionReference())
+                    .amount(match.amount())
+                    .appliedAt(LocalDateTime.now())
+                    .build());
+                applied.add(new AppliedRepayment(loan, match.amount(), match.email()));
+            } catch (LoanServiceException e) {
+                log.warn("Unmatched repayment {} for loan {}: {}", match.transactionReference(), match.loanId(), e.getMessage());
+            }
+        }
+
+        loanRepaymentRepository.saveAll(records);
+        return applied;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.loan.service;
 
+import com.example.loan.dto.LoanEligibilityResponseDto;
 import com.example.loan.dto.LoanRequestDto;
 import com.example.loan.dto.LoanResponseDto;
 import com.example.loan.dto.PaymentRequestDto;
@@ -8,4 +9,5 @@ public interface LoanService {
     LoanResponseDto applyForLoan(LoanRequestDto loanRequestDto);
     LoanResponseDto getLoanDetails(Long loanId);
     LoanResponseDto makePayment(PaymentRequestDto paymentRequestDto);
+    LoanEligibilityResponseDto checkEligibility(LoanRequestDto loanRequestDto);
 }
\ No newline at end of file
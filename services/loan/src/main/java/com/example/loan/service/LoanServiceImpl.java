@@ -2,6 +2,8 @@ package com.example.loan.service;
 
 import com.example.loan.client.AccountClient;
 import com.example.loan.client.AuthClient;
+import com.example.loan.client.AuthResponse;
+import com.example.loan.dto.LoanEligibilityResponseDto;
 import com.example.loan.dto.LoanRequestDto;
 import com.example.loan.dto.LoanResponseDto;
 import com.example.loan.dto.PaymentRequestDto;
@@ -30,10 +32,19 @@ public class LoanServiceImpl implements LoanService {
     @Autowired
     private  AccountClient accountClient;
 
+    @Autowired
+    private LoanPaymentProcessor loanPaymentProcessor;
+
+    @Autowired
+    private LoanEventPublisher loanEventPublisher;
+
+    @Autowired
+    private LoanEligibilityService loanEligibilityService;
+
     @Override
     public LoanResponseDto applyForLoan(LoanRequestDto loanRequestDto) {
         // Check if customer exists
-        authClient.findCustomerById(loanRequestDto.getAuthId())
+        AuthResponse customer = authClient.findCustomerById(loanRequestDto.getAuthId())
             .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
         // Check if account exists
@@ -51,9 +62,11 @@ public class LoanServiceImpl implements LoanService {
         loan.setStatus(Loan.LoanStatus.ACTIVE);
 
         loanRepository.save(loan);
+        loanEventPublisher.publishLoanApplied(loan, customer.email());
 
         // Update account balance
         accountClient.updateBalance(loanRequestDto.getAccountId(), loanRequestDto.getAmount());
+        loanEventPublisher.publishLoanDisbursed(loan, customer.email());
 
         // Prepare response
         LoanResponseDto response = new LoanResponseDto();
@@ -79,6 +92,12 @@ public class LoanServiceImpl implements LoanService {
         Loan loan = loanOpt.get();
         updateLoanStatus(loan);
 
+        // Persist the ACTIVE -> OVERDUE transition once and announce it
+        if (loan.getStatus() == Loan.LoanStatus.OVERDUE
+            && loanRepository.markOverdue(loanId, LocalDate.now(), Loan.LoanStatus.ACTIVE, Loan.LoanStatus.OVERDUE) == 1) {
+            loanEventPublisher.publishOverdue(loan);
+        }
+
         LoanResponseDto response = new LoanResponseDto();
         response.setLoanId(loan.getId());
         response.setAuthId(loan.getAuthId());
@@ -95,27 +114,14 @@ public class LoanServiceImpl implements LoanService {
 
     @Override
     public LoanResponseDto makePayment(PaymentRequestDto paymentRequestDto) {
-        Optional<Loan> loanOpt = loanRepository.findById(paymentRequestDto.getLoanId());
-        if (!loanOpt.isPresent()) {
-            throw new LoanServiceException("Loan not found");
-        }
-
-        Loan loan = loanOpt.get();
         BigDecimal paymentAmount = paymentRequestDto.getPaymentAmount();
 
-        if (paymentAmount.compareTo(loan.getBalance()) > 0) {
-            throw new LoanServiceException("Payment amount exceeds loan balance");
-        }
-
-        loan.setBalance(loan.getBalance().subtract(paymentAmount));
-        if (loan.getBalance().compareTo(BigDecimal.ZERO) == 0) {
-            loan.setStatus(Loan.LoanStatus.PAID);
-        }
-
-        loanRepository.save(loan);
+        // Conditional, version-checked update; no read-modify-write on the balance
+        Loan loan = loanPaymentProcessor.applyPayment(paymentRequestDto.getLoanId(), paymentAmount);
 
         // Update account balance
         accountClient.updateBalance(loan.getAccountId(), paymentAmount.negate());
+        loanEventPublisher.publishPayment(loan, paymentAmount);
 
         LoanResponseDto response = new LoanResponseDto();
         response.setLoanId(loan.getId());
@@ -131,6 +137,11 @@ public class LoanServiceImpl implements LoanService {
         return response;
     }
 
+    @Override
+    public LoanEligibilityResponseDto checkEligibility(LoanRequestDto loanRequestDto) {
+        return loanEligibilityService.evaluate(loanRequestDto);
+    }
+
     private void updateLoanStatus(Loan loan) {
         if (loan.getDueDate().isBefore(LocalDate.now()) && loan.getBalance().compareTo(BigDecimal.ZERO) > 0) {
             loan.setStatus(Loan.LoanStatus.OVERDUE);
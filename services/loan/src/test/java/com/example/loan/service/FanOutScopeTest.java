@@ -0,0 +1,65 @@
+package com.example.loan.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutScopeTest {
+
+    @Test
+    void latencyIsTheSlowestSubtaskNotTheSum() throws Exception {
+        long started = System.nanoTime();
+        try (FanOutScope scope = new FanOutScope(Duration.ofSeconds(5))) {
+            Future<Integer> a = scope.fork(() -> sleepAndReturn(300, 1));
+            Future<Integer> b = scope.fork(() -> sleepAndReturn(300, 2));
+            Future<Integer> c = scope.fork(() -> sleepAndReturn(300, 3));
+            scope.join();
+            assertEquals(6, a.resultNow() + b.resultNow() + c.resultNow());
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertTrue(elapsedMs < 800, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void firstFailureCancelsSiblings() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (FanOutScope scope = new FanOutScope(Duration.ofSeconds(5))) {
+            scope.fork(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                throw new IllegalStateException("dependency down");
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, scope::join);
+            assertEquals("dependency down", e.getCause().getMessage());
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deadlineBoundsTheWholeFanOut() {
+        try (FanOutScope scope = new FanOutScope(Duration.ofMillis(100))) {
+            scope.fork(() -> sleepAndReturn(5_000, 1));
+            assertThrows(TimeoutException.class, scope::join);
+        }
+    }
+
+    private static int sleepAndReturn(long millis, int value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+}
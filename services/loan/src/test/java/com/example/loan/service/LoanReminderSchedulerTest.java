@@ -0,0 +1,87 @@
+package com.example.loan.service;
+
+import com.example.loan.model.Loan;
+import com.example.loan.model.LoanReminder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoanReminderSchedulerTest {
+
+    private static final LoanReminder.ReminderType TYPE = LoanReminder.ReminderType.DUE_IN_7_DAYS;
+    private static final LocalDate DUE = LocalDate.of(2026, 3, 1);
+
+    private final LoanReminderService reminderService = mock(LoanReminderService.class);
+    private final LoanEventPublisher publisher = mock(LoanEventPublisher.class);
+    private final LoanReminderScheduler scheduler = new LoanReminderScheduler(reminderService, publisher);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "pageSize", 2);
+        ReflectionTestUtils.setField(scheduler, "publishTimeoutMs", 1000L);
+    }
+
+    @Test
+    void recordsOnlyAcknowledgedRemindersAndResolvesEmailsOncePerPage() {
+        Loan first = loan(1L, 10L);
+        Loan second = loan(2L, 10L);
+        Loan third = loan(3L, 30L);
+        when(reminderService.findPage(TYPE, DUE, 0L, 2)).thenReturn(new LoanReminderService.ReminderPage(List.of(first, second), 2L, false));
+        when(reminderService.findPage(TYPE, DUE, 2L, 2)).thenReturn(new LoanReminderService.ReminderPage(List.of(third), 3L, true));
+        when(publisher.resolveEmails(List.of(10L))).thenReturn(Map.of(10L, "a@bank.com"));
+        when(publisher.resolveEmails(List.of(30L))).thenReturn(Map.of(30L, "c@bank.com"));
+        when(publisher.publishReminder(eq(first), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(publisher.publishReminder(eq(second), anyString(), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(publisher.publishReminder(eq(third), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(2, scheduler.sendReminders(TYPE, DUE));
+
+        verify(publisher).publishReminder(first, TYPE.name(), "a@bank.com");
+        verify(publisher).publishReminder(third, TYPE.name(), "c@bank.com");
+        verify(publisher, times(2)).resolveEmails(any());
+        // The failed send stays unrecorded, so the next run publishes it again
+        verify(reminderService).recordSent(TYPE, DUE, List.of(1L));
+        verify(reminderService).recordSent(TYPE, DUE, List.of(3L));
+    }
+
+    @Test
+    void pageIsLeftForNextRunWhenEmailsCannotBeResolved() {
+        Loan first = loan(1L, 10L);
+        Loan second = loan(2L, 20L);
+        when(reminderService.findPage(TYPE, DUE, 0L, 2)).thenReturn(new LoanReminderService.ReminderPage(List.of(first), 1L, false));
+        when(reminderService.findPage(TYPE, DUE, 1L, 2)).thenReturn(new LoanReminderService.ReminderPage(List.of(second), 2L, true));
+        when(publisher.resolveEmails(List.of(10L))).thenThrow(new RuntimeException("auth-service unavailable"));
+        when(publisher.resolveEmails(List.of(20L))).thenReturn(Map.of(20L, "b@bank.com"));
+        when(publisher.publishReminder(eq(second), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(1, scheduler.sendReminders(TYPE, DUE));
+
+        verify(publisher, never()).publishReminder(eq(first), anyString(), any());
+        verify(reminderService, never()).recordSent(TYPE, DUE, List.of(1L));
+        verify(reminderService).recordSent(TYPE, DUE, List.of(2L));
+    }
+
+    private static Loan loan(Long id, Long authId) {
+        Loan loan = new Loan();
+        loan.setId(id);
+        loan.setAuthId(authId);
+        loan.setDueDate(DUE);
+        loan.setStatus(Loan.LoanStatus.ACTIVE);
+        return loan;
+    }
+}
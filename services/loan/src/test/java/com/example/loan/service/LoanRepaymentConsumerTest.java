@@ -0,0 +1,94 @@
+package com.example.loan.service;
+
+import com.example.loan.event.TransactionEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoanRepaymentConsumerTest {
+
+    private static final long REPAYMENT_ACCOUNT = 900L;
+
+    private final LoanRepaymentService repaymentService = mock(LoanRepaymentService.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final LoanRepaymentConsumer consumer = new LoanRepaymentConsumer(repaymentService, mock(LoanEventPublisher.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(consumer, "referencePattern", "LOAN-(\\d{1,18})(?!\\d)");
+        ReflectionTestUtils.setField(consumer, "repaymentAccountId", REPAYMENT_ACCOUNT);
+        consumer.compilePattern();
+        when(repaymentService.applyRepayments(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void matchesOnlyDepositsIntoTheRepaymentAccount() {
+        consumer.consumeTransactionEvents(List.of(
+            deposit("TX-1", REPAYMENT_ACCOUNT, "Repayment LOAN-42"),
+            deposit("TX-2", 17L, "Repayment LOAN-42"),
+            deposit("TX-3", null, "Repayment LOAN-42")), acknowledgment);
+
+        ArgumentCaptor<List<LoanRepaymentService.RepaymentMatch>> matches = ArgumentCaptor.captor();
+        verify(repaymentService).applyRepayments(matches.capture());
+        assertEquals(List.of(new LoanRepaymentService.RepaymentMatch(42L, "TX-1", BigDecimal.TEN, "a@example.com")),
+            matches.getValue());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void matchesNothingWithoutRepaymentAccount() {
+        ReflectionTestUtils.setField(consumer, "repaymentAccountId", null);
+
+        consumer.consumeTransactionEvents(List.of(deposit("TX-1", REPAYMENT_ACCOUNT, "LOAN-42")), acknowledgment);
+
+        verify(repaymentService, never()).applyRepayments(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void leavesOversizedLoanReferenceUnmatched() {
+        consumer.consumeTransactionEvents(List.of(
+            deposit("TX-1", REPAYMENT_ACCOUNT, "LOAN-99999999999999999999"),
+            deposit("TX-2", REPAYMENT_ACCOUNT, "LOAN-7")), acknowledgment);
+
+        ArgumentCaptor<List<LoanRepaymentService.RepaymentMatch>> matches = ArgumentCaptor.captor();
+        verify(repaymentService).applyRepayments(matches.capture());
+        assertEquals(List.of(7L), matches.getValue().stream().map(LoanRepaymentService.RepaymentMatch::loanId).toList());
+    }
+
+    @Test
+    void toleratesPatternsThatAllowMoreDigitsThanALoanId() {
+        ReflectionTestUtils.setField(consumer, "referencePattern", "LOAN-(\\d+)");
+        consumer.compilePattern();
+
+        consumer.consumeTransactionEvents(List.of(deposit("TX-1", REPAYMENT_ACCOUNT, "LOAN-99999999999999999999")),
+            acknowledgment);
+
+        verify(repaymentService, never()).applyRepayments(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static TransactionEvent deposit(String reference, Long destinationAccountId, String description) {
+        TransactionEvent event = new TransactionEvent();
+        event.setTransactionReference(reference);
+        event.setDestinationAccountId(destinationAccountId);
+        event.setAmount(BigDecimal.TEN);
+        event.setType("DEPOSIT");
+        event.setStatus("COMPLETED");
+        event.setDescription(description);
+        event.setEmail("a@example.com");
+        return event;
+    }
+}
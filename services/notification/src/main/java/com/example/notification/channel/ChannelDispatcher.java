@@ -0,0 +1,171 @@
+package com.example.notification.channel;
+
+import com.example.notification.dto.ChannelStatusDto;
+import com.example.notification.util.CircuitBreaker;
+import com.example.notification.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Fans notifications out to the non-email channels. Every channel is an isolated lane with its own
+// bounded queue, worker threads, token bucket and circuit breaker, so a throttled or failing provider
+// only backs up its own lane. A full lane drops new messages instead of blocking the consumer.
+// Email keeps its dedicated SMTP workers in EmailDeliveryQueue.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChannelDispatcher {
+
+    private static final String CONFIG_PREFIX = "application.config.channels.";
+
+    private final List<NotificationChannel> channels;
+    private final Environment environment;
+    private final Map<ChannelType, Lane> lanes = new EnumMap<>(ChannelType.class);
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void start() {
+        for (NotificationChannel channel : channels) {
+            String prefix = CONFIG_PREFIX + channel.type().configKey() + ".";
+            if (!environment.getProperty(prefix + "enabled", Boolean.class, false)) {
+                continue;
+            }
+            Lane lane = new Lane(channel,
+                Arrays.stream(environment.getProperty(prefix + "events", "").split(","))
+                    .map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet()),
+                new ArrayBlockingQueue<>(environment.getProperty(prefix + "queue-capacity", Integer.class, 1000)),
+                new TokenBucket(environment.getProperty(prefix + "rate-per-second", Double.class, 10.0),
+                    environment.getProperty(prefix + "burst", Integer.class, 20)),
+                new CircuitBreaker(environment.getProperty(prefix + "failure-threshold", Integer.class, 5),
+                    environment.getProperty(prefix + "open-ms", Long.class, 30_000L)),
+                environment.getProperty(prefix + "max-attempts", Integer.class, 3),
+                environment.getProperty(prefix + "retry-backoff-ms", Long.class, 500L));
+
+            int workerCount = environment.getProperty(prefix + "workers", Integer.class, 2);
+            for (int i = 0; i < workerCount; i++) {
+                lane.workers.add(Thread.ofPlatform()
+                    .name(channel.type().configKey() + "-worker-" + i)
+                    .daemon()
+                    .start(() -> drain(lane)));
+            }
+            lanes.put(channel.type(), lane);
+            log.info("Started {} channel with {} workers for {}", channel.type(), workerCount, lane.events);
+        }
+    }
+
+    // Queues the message on every channel routed for this event type
+    public void dispatch(String eventType, ChannelMessage message) {
+        for (Lane lane : lanes.values()) {
+            if (lane.events.contains(eventType) && !lane.queue.offer(message)) {
+                lane.dropped.increment();
+                log.debug("{} channel queue full, dropping notification {}", lane.channel.type(), message.notificationId());
+            }
+        }
+    }
+
+    public boolean routes(String eventType) {
+        return lanes.values().stream().anyMatch(lane -> lane.events.contains(eventType));
+    }
+
+    public List<ChannelStatusDto> getStatus() {
+        List<ChannelStatusDto> status = new ArrayList<>();
+        lanes.forEach((type, lane) -> status.add(ChannelStatusDto.builder()
+            .channel(type)
+            .circuitState(lane.breaker.getState().name())
+            .queued(lane.queue.size())
+            .sent(lane.sent.sum())
+            .failed(lane.failed.sum())
+            .dropped(lane.dropped.sum())
+            .build()));
+        return status;
+    }
+
+    private void drain(Lane lane) {
+        while (running) {
+            try {
+                deliver(lane, lane.queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void deliver(Lane lane, ChannelMessage message) throws InterruptedException {
+        for (int attempt = 1; attempt <= lane.maxAttempts; attempt++) {
+            long delay;
+            while ((delay = lane.breaker.permitDelayMs()) > 0) {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            lane.limiter.acquire();
+            try {
+                lane.channel.send(message);
+                lane.breaker.onSuccess();
+                lane.sent.increment();
+                return;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                lane.breaker.onFailure();
+                log.warn("{} delivery of notification {} failed (attempt {}/{}): {}", lane.channel.type(),
+                    message.notificationId(), attempt, lane.maxAttempts, e.getMessage());
+                if (attempt < lane.maxAttempts) {
+                    TimeUnit.MILLISECONDS.sleep(lane.retryBackoffMs << (attempt - 1));
+                }
+            }
+        }
+        lane.failed.increment();
+        log.error("Giving up {} delivery of notification {}", lane.channel.type(), message.notificationId());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        lanes.values().forEach(lane -> {
+            lane.workers.forEach(Thread::interrupt);
+            if (!lane.queue.isEmpty()) {
+                log.warn("{} channel dropped {} queued messages at shutdown", lane.channel.type(), lane.queue.size());
+            }
+        });
+    }
+
+    private static final class Lane {
+        private final NotificationChannel channel;
+        private final Set<String> events;
+        private final BlockingQueue<ChannelMessage> queue;
+        private final TokenBucket limiter;
+        private final CircuitBreaker breaker;
+        private final int maxAttempts;
+        private final long retryBackoffMs;
+        private final List<Thread> workers = new ArrayList<>();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        private Lane(NotificationChannel channel, Set<String> events, BlockingQueue<ChannelMessage> queue,
+                     TokenBucket limiter, CircuitBreaker breaker, int maxAttempts, long retryBackoffMs) {
+            this.channel = channel;
+            this.events = events;
+            this.queue = queue;
+            this.limiter = limiter;
+            this.breaker = breaker;
+            this.maxAttempts = Math.max(1, maxAttempts);
+            this.retryBackoffMs = retryBackoffMs;
+        }
+    }
+}
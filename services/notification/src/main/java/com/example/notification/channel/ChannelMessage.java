@@ -0,0 +1,7 @@
+package com.example.notification.channel;
+
+// What non-email channels receive: a short plain-text rendering of a stored notification.
+// notificationId links the delivery back to the notification row for tracing.
+public record ChannelMessage(Long notificationId, Long userId, String recipient, String eventType,
+                             String title, String text) {
+}
@@ -0,0 +1,10 @@
+package com.example.notification.channel;
+
+public enum ChannelType {
+    EMAIL, SMS, PUSH, WEBHOOK;
+
+    // Key under application.config.channels
+    public String configKey() {
+        return name().toLowerCase();
+    }
+}
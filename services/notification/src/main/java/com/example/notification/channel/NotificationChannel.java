@@ -0,0 +1,11 @@
+package com.example.notification.channel;
+
+// A delivery provider. Implementations only talk to the provider; queuing, rate limiting and
+// circuit breaking are applied around them by ChannelDispatcher.
+public interface NotificationChannel {
+
+    ChannelType type();
+
+    // Throws when the provider rejected or could not be reached; the failure counts towards the breaker
+    void send(ChannelMessage message) throws Exception;
+}
@@ -0,0 +1,27 @@
+package com.example.notification.channel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Local stand-in for the push provider; logs the message after the configured simulated latency
+@Slf4j
+@Component
+public class PushChannel implements NotificationChannel {
+
+    @Value("${application.config.channels.push.stub-latency-ms:20}")
+    private long latencyMs;
+
+    @Override
+    public ChannelType type() {
+        return ChannelType.PUSH;
+    }
+
+    @Override
+    public void send(ChannelMessage message) throws Exception {
+        TimeUnit.MILLISECONDS.sleep(latencyMs);
+        log.info("[PUSH stub] user {} notification {}: {}", message.userId(), message.notificationId(), message.text());
+    }
+}
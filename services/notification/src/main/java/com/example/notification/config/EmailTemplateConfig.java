@@ -0,0 +1,21 @@
+package com.example.notification.config;
+
+import com.example.notification.service.EmailTemplateRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+@Configuration
+public class EmailTemplateConfig {
+
+    // Kept separate from the auto-configured web TemplateEngine
+    @Bean
+    public EmailTemplateRenderer emailTemplateRenderer(
+            @Value("${application.config.email.templates.location:}") String location,
+            @Value("${application.config.email.templates.reload-interval-ms:0}") long reloadIntervalMs,
+            @Value("${application.config.email.templates.default-locale:en}") String defaultLocale) {
+        return new EmailTemplateRenderer(location, reloadIntervalMs, Locale.forLanguageTag(defaultLocale));
+    }
+}
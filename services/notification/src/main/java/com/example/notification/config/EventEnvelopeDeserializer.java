@@ -0,0 +1,41 @@
+package com.example.notification.config;
+
+import com.example.notification.event.EventEnvelope;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+// Deserializes with the delegate but keeps the original bytes, so tracking and SSE can forward
+// the event as received instead of serializing it back to JSON
+public class EventEnvelopeDeserializer<T> implements Deserializer<EventEnvelope<T>> {
+
+    private final Deserializer<T> delegate;
+
+    public EventEnvelopeDeserializer(Deserializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public EventEnvelope<T> deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public EventEnvelope<T> deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return new EventEnvelope<>(delegate.deserialize(topic, headers, data), data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.notification.config;
 
-import com.example.notification.event.AccountEvent;
-import com.example.notification.event.TransactionEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -10,7 +8,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
@@ -63,49 +60,4 @@ public class KafkaConfig {
 
         return new DefaultKafkaConsumerFactory<>(props);
     }
-
-    // Transaction-specific consumer factory
-    @Bean
-    public ConsumerFactory<String, TransactionEvent> transactionConsumerFactory() {
-        Map<String, Object> props = baseConsumerConfigs();
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionEvent.class.getName());
-        // Other transaction-specific configs...
-
-        return new DefaultKafkaConsumerFactory<>(
-            props,
-            new StringDeserializer(),
-            new ErrorHandlingDeserializer<>(new JsonDeserializer<>(TransactionEvent.class))
-        );
-    }
-
-    // Account-specific consumer factory
-    @Bean
-    public ConsumerFactory<String, AccountEvent> accountConsumerFactory() {
-        Map<String, Object> props = baseConsumerConfigs();
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, AccountEvent.class.getName());
-        // Other account-specific configs...
-
-        return new DefaultKafkaConsumerFactory<>(
-            props,
-            new StringDeserializer(),
-            new ErrorHandlingDeserializer<>(new JsonDeserializer<>(AccountEvent.class))
-        );
-    }
-
-    // Container factories
-    @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, TransactionEvent> transactionKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, TransactionEvent> factory =
-            new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(transactionConsumerFactory());
-        return factory;
-    }
-
-    @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, AccountEvent> accountKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, AccountEvent> factory =
-            new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(accountConsumerFactory());
-        return factory;
-    }
-}
\ No newline at end of file
+}
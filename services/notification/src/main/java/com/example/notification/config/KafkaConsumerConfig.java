@@ -1,14 +1,20 @@
 package com.example.notification.config;
 
 import com.example.notification.event.AccountEvent;
+import com.example.notification.event.EventEnvelope;
+import com.example.notification.event.LoanEvent;
 import com.example.notification.event.TransactionEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
@@ -16,66 +22,87 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConsumerConfig {
 
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${application.config.kafka.max-poll-records:500}")
+    private int maxPollRecords;
+
     // Common consumer configuration
     private Map<String, Object> baseConsumerConfigs() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-group");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Listeners are batch listeners; each poll becomes one bulk insert
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         return props;
     }
 
-    // Transaction Event Consumer Factory
-    @Bean
-    public ConsumerFactory<String, TransactionEvent> transactionConsumerFactory() {
-        Map<String, Object> props = baseConsumerConfigs();
-
-        JsonDeserializer<TransactionEvent> deserializer = new JsonDeserializer<>(TransactionEvent.class);
+    // Typed event plus the raw record value
+    private <T> ConsumerFactory<String, EventEnvelope<T>> envelopeConsumerFactory(Class<T> eventType) {
+        JsonDeserializer<T> deserializer = new JsonDeserializer<>(eventType);
         deserializer.setRemoveTypeHeaders(false);
         deserializer.addTrustedPackages("com.example.notification.event");
         deserializer.setUseTypeMapperForKey(true);
 
-        return new DefaultKafkaConsumerFactory<>(
-            props,
+        DefaultKafkaConsumerFactory<String, EventEnvelope<T>> factory = new DefaultKafkaConsumerFactory<>(
+            baseConsumerConfigs(),
             new StringDeserializer(),
-            new ErrorHandlingDeserializer<>(deserializer)
+            new ErrorHandlingDeserializer<>(new EventEnvelopeDeserializer<>(deserializer))
         );
+        // Binds the consumers' own metrics (fetch rate, records-lag-max, last poll) to Micrometer
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
-    // Account Event Consumer Factory
+    private <T> ConcurrentKafkaListenerContainerFactory<String, EventEnvelope<T>> batchContainerFactory(
+            ConsumerFactory<String, EventEnvelope<T>> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, EventEnvelope<T>> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setBatchListener(true);
+        factory.setConsumerFactory(consumerFactory);
+        return factory;
+    }
+
+    // Transaction Event Consumer Factory
     @Bean
-    public ConsumerFactory<String, AccountEvent> accountConsumerFactory() {
-        Map<String, Object> props = baseConsumerConfigs();
+    public ConsumerFactory<String, EventEnvelope<TransactionEvent>> transactionConsumerFactory() {
+        return envelopeConsumerFactory(TransactionEvent.class);
+    }
 
-        JsonDeserializer<AccountEvent> deserializer = new JsonDeserializer<>(AccountEvent.class);
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.addTrustedPackages("com.example.notification.event");
-        deserializer.setUseTypeMapperForKey(true);
+    // Account Event Consumer Factory
+    @Bean
+    public ConsumerFactory<String, EventEnvelope<AccountEvent>> accountConsumerFactory() {
+        return envelopeConsumerFactory(AccountEvent.class);
+    }
 
-        return new DefaultKafkaConsumerFactory<>(
-            props,
-            new StringDeserializer(),
-            new ErrorHandlingDeserializer<>(deserializer)
-        );
+    // Loan Event Consumer Factory
+    @Bean
+    public ConsumerFactory<String, EventEnvelope<LoanEvent>> loanConsumerFactory() {
+        return envelopeConsumerFactory(LoanEvent.class);
     }
 
     // Transaction Event Listener Container Factory
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, TransactionEvent> transactionKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, TransactionEvent> factory =
-            new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(transactionConsumerFactory());
-        return factory;
+    public ConcurrentKafkaListenerContainerFactory<String, EventEnvelope<TransactionEvent>> transactionKafkaListenerContainerFactory() {
+        return batchContainerFactory(transactionConsumerFactory());
     }
 
     // Account Event Listener Container Factory
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, AccountEvent> accountKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, AccountEvent> factory =
-            new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(accountConsumerFactory());
-        return factory;
+    public ConcurrentKafkaListenerContainerFactory<String, EventEnvelope<AccountEvent>> accountKafkaListenerContainerFactory() {
+        return batchContainerFactory(accountConsumerFactory());
+    }
+
+    // Loan Event Listener Container Factory
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EventEnvelope<LoanEvent>> loanKafkaListenerContainerFactory() {
+        return batchContainerFactory(loanConsumerFactory());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.example.notification.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Brings a notifications table created by older versions in line with the entity, for the changes
+// ddl-auto update does not make itself. Runs before any listener starts inserting.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class NotificationSchemaInitializer {
+
+    // notifications used IDENTITY ids before the pooled sequence was introduced
+    private static final String ALIGN_SEQUENCE = """
+        SELECT setval('notifications_seq', t.max_id + 50)
+        FROM (SELECT MAX(id) AS max_id FROM notifications) t, notifications_seq s
+        WHERE t.max_id IS NOT NULL AND t.max_id >= s.last_value
+        """;
+
+    // message used to hold every rendered body; templated rows now leave it empty
+    private static final String RELAX_MESSAGE = """
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'notifications' AND column_name = 'message' AND is_nullable = 'NO'
+        """;
+
+    private static final String DUPLICATE_RECIPIENTS = """
+        DELETE FROM campaign_recipients r USING campaign_recipients first
+        WHERE r.campaign_id = first.campaign_id AND lower(r.email) = lower(first.email) AND r.seq > first.seq
+        """;
+
+    private static final String IS_PARTITIONED =
+        "SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass('notifications')";
+
+    // Everything up to the month after the newest existing row, and at least the current month,
+    // stays in the original table
+    private static final String LEGACY_UPPER_BOUND = """
+        SELECT GREATEST(date_trunc('month', MAX(sent_at)), date_trunc('month', now())) + interval '1 month'
+        FROM notifications
+        """;
+
+    private static final String PRIMARY_KEY_NAME =
+        "SELECT conname FROM pg_constraint WHERE conrelid = 'notifications_legacy'::regclass AND contype = 'p'";
+
+    private static final String LEGACY_KEY = "notifications_legacy_pkey";
+    private static final String LEGACY_BOUND = "notifications_legacy_bound";
+
+    // A CONCURRENTLY build that was interrupted leaves an invalid index behind
+    private static final String INDEX_VALID =
+        "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass('" + LEGACY_KEY + "')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        partitionBySentAt();
+        // Backs the inbox keyset: WHERE user_id = ? AND (sent_at, id) < (?, ?) ORDER BY sent_at DESC, id DESC.
+        // Created here because Hibernate does not see indexes on a partitioned table.
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_user_sent ON notifications (user_id, sent_at, id)");
+        // Keeps the deferred-delivery sweep cheap: only rows waiting for the bulk lane are indexed
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_deferred ON notifications (deferred_at) "
+            + "WHERE deferred_at IS NOT NULL");
+        // Lets the sweep find PENDING rows a crashed instance held in memory
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_stranded ON notifications (sent_at) "
+            + "WHERE status = 'PENDING' AND deferred_at IS NULL");
+        // Lets a resumed campaign find the recipients it already emailed
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_campaign ON notifications (campaign_id, email) "
+            + "WHERE campaign_id IS NOT NULL");
+        uniqueCampaignRecipients();
+        List<Long> aligned = jdbcTemplate.queryForList(ALIGN_SEQUENCE, Long.class);
+        if (!aligned.isEmpty()) {
+            log.info("Moved notifications_seq to {} past existing notification ids", aligned.get(0));
+        }
+        if (!jdbcTemplate.queryForList(RELAX_MESSAGE, Integer.class).isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE notifications ALTER COLUMN message DROP NOT NULL");
+            log.info("Made notifications.message nullable for templated notifications");
+        }
+    }
+
+    // Campaigns list each address once, ignoring case. Recipients loaded before that was enforced
+    // keep their first occurrence; the rest would have been skipped when sending anyway.
+    private void uniqueCampaignRecipients() {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass('uk_campaign_recipients_email') IS NOT NULL", Boolean.class)) {
+            return;
+        }
+        int removed = jdbcTemplate.update(DUPLICATE_RECIPIENTS);
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_campaign_recipients_email "
+            + "ON campaign_recipients (campaign_id, lower(email))");
+        if (removed > 0) {
+            log.info("Removed {} repeated campaign recipients", removed);
+        }
+    }
+
+    // Turns the plain table into one range-partitioned by sent_at month, so retention can drop whole
+    // partitions. The existing table is attached as-is as the first partition; no rows are copied.
+    // Monthly partitions after it are created by NotificationRetentionService.
+    //
+    // The work that reads the whole table happens first, under locks that let inserts go on: the
+    // (id, sent_at) key is built CONCURRENTLY, and a NOT VALID check matching the partition bound is
+    // validated, which lets ATTACH skip its scan. The exclusive lock then only covers catalog changes.
+    private void partitionBySentAt() {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class))) {
+            return;
+        }
+        Boolean keyValid = jdbcTemplate.query(INDEX_VALID, rs -> rs.next() ? rs.getBoolean(1) : null);
+        if (Boolean.FALSE.equals(keyValid)) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY " + LEGACY_KEY);
+        }
+        // The partition key has to be part of every unique constraint
+        jdbcTemplate.execute("CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS " + LEGACY_KEY + " ON notifications (id, sent_at)");
+
+        LocalDateTime legacyUpperBound = jdbcTemplate.queryForObject(LEGACY_UPPER_BOUND, LocalDateTime.class);
+        jdbcTemplate.execute("ALTER TABLE notifications DROP CONSTRAINT IF EXISTS " + LEGACY_BOUND);
+        jdbcTemplate.execute("ALTER TABLE notifications ADD CONSTRAINT " + LEGACY_BOUND
+            + " CHECK (sent_at IS NOT NULL AND sent_at < '" + legacyUpperBound + "') NOT VALID");
+        jdbcTemplate.execute("ALTER TABLE notifications VALIDATE CONSTRAINT " + LEGACY_BOUND);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE notifications IN ACCESS EXCLUSIVE MODE");
+            // Another instance may have converted it while we waited for the lock
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class))) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE notifications RENAME TO notifications_legacy");
+            jdbcTemplate.execute("ALTER TABLE notifications_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            // Replaced by the (id, sent_at) key built above, which ATTACH matches to the parent's
+            for (String primaryKey : jdbcTemplate.queryForList(PRIMARY_KEY_NAME, String.class)) {
+                jdbcTemplate.execute("ALTER TABLE notifications_legacy DROP CONSTRAINT " + primaryKey);
+            }
+            jdbcTemplate.execute("ALTER TABLE notifications_legacy ADD CONSTRAINT " + LEGACY_KEY
+                + " PRIMARY KEY USING INDEX " + LEGACY_KEY);
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_notifications_user_sent RENAME TO notifications_legacy_user_sent");
+
+            jdbcTemplate.execute("CREATE TABLE notifications (LIKE notifications_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS) "
+                + "PARTITION BY RANGE (sent_at)");
+            // The bound only applies to the legacy partition
+            jdbcTemplate.execute("ALTER TABLE notifications DROP CONSTRAINT " + LEGACY_BOUND);
+            jdbcTemplate.execute("ALTER TABLE notifications ADD PRIMARY KEY (id, sent_at)");
+            jdbcTemplate.execute("ALTER TABLE notifications ATTACH PARTITION notifications_legacy "
+                + "FOR VALUES FROM (MINVALUE) TO ('" + legacyUpperBound + "')");
+            // Catches rows outside every monthly partition, e.g. from a skewed clock, instead of failing the insert
+            jdbcTemplate.execute("CREATE TABLE notifications_default PARTITION OF notifications DEFAULT");
+            log.info("Partitioned notifications by sent_at; existing rows kept in notifications_legacy until {}", legacyUpperBound);
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.notification.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+// Serves static files from memory. Each file is read once, gzipped once when that makes it smaller,
+// and given a content hash as its ETag, so repeat requests cost no classpath reads or compression,
+// and revalidations are answered with 304. Brotli is not offered: the JDK has no encoder for it.
+@Slf4j
+public class PrecompressedResourceResolver implements ResourceResolver {
+
+    private static final Set<String> COMPRESSIBLE = Set.of("html", "css", "js", "json", "svg", "txt", "map");
+
+    private final int gzipMinBytes;
+    private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+
+    public PrecompressedResourceResolver(int gzipMinBytes) {
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    @Override
+    public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                    List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null) {
+            return null;
+        }
+        Asset asset = assets.computeIfAbsent(requestPath, path -> load(path, resource));
+        String acceptEncoding = request != null ? request.getHeader(HttpHeaders.ACCEPT_ENCODING) : null;
+        return asset.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip") ? asset.gzip() : asset.identity();
+    }
+
+    @Override
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+
+    // Used as the handler's ETag generator; the variants carry different tags since their bytes differ
+    public static String etag(Resource resource) {
+        return resource instanceof AssetResource asset ? asset.etag : null;
+    }
+
+    private Asset load(String path, Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            byte[] content = in.readAllBytes();
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content), 0, 16);
+            String filename = resource.getFilename();
+            long lastModified = resource.lastModified();
+            boolean compress = content.length >= gzipMinBytes
+                && COMPRESSIBLE.contains(StringUtils.getFilenameExtension(filename));
+            byte[] gzipped = compress ? gzip(content) : null;
+            if (gzipped != null && gzipped.length >= content.length) {
+                gzipped = null;
+            }
+            // Vary is sent on both variants so shared caches keep them apart
+            AssetResource identity = new AssetResource(content, filename, lastModified, "\"" + hash + "\"", null, gzipped != null);
+            AssetResource gzip = gzipped != null
+                ? new AssetResource(gzipped, filename, lastModified, "\"" + hash + "-gz\"", "gzip", true) : null;
+            log.info("Cached static asset {}: {} bytes{}", path, content.length,
+                gzip != null ? ", " + gzipped.length + " gzipped" : "");
+            return new Asset(identity, gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read static asset " + path, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private record Asset(AssetResource identity, AssetResource gzip) {
+    }
+
+    private static final class AssetResource extends ByteArrayResource implements HttpResource {
+
+        private final String filename;
+        private final long lastModified;
+        private final String etag;
+        private final String contentEncoding;
+        private final boolean varies;
+
+        private AssetResource(byte[] content, String filename, long lastModified, String etag,
+                              String contentEncoding, boolean varies) {
+            super(content);
+            this.filename = filename;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.contentEncoding = contentEncoding;
+            this.varies = varies;
+        }
+
+        // The handler picks the Content-Type from the original name
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (contentEncoding != null) {
+                headers.add(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            }
+            if (varies) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            return headers;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package com.example.notification.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Value("${application.config.static-assets.cache-seconds:300}")
+    private long cacheSeconds;
+
+    @Value("${application.config.static-assets.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve static files from /static directory
+        // Serve static files from /static directory, including the dashboard. Files are held in
+        // memory with a gzip variant; browsers reuse them for cache-seconds, then revalidate by
+        // ETag and get a bodyless 304 while the file is unchanged.
         registry.addResourceHandler("/**")
                 .addResourceLocations("classpath:/static/")
-                .setCachePeriod(0);
-        
-        // Explicitly handle the dashboard HTML file
-        registry.addResourceHandler("/notification-dashboard.html")
-                .addResourceLocations("classpath:/static/notification-dashboard.html")
-                .setCachePeriod(0);
+                .setCacheControl(CacheControl.maxAge(Duration.ofSeconds(cacheSeconds)).cachePublic())
+                .setEtagGenerator(PrecompressedResourceResolver::etag)
+                .resourceChain(true)
+                .addResolver(new PrecompressedResourceResolver(gzipMinBytes));
     }
 }
-
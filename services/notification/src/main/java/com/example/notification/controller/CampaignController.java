@@ -0,0 +1,88 @@
+package com.example.notification.controller;
+
+import com.example.notification.dto.CampaignDto;
+import com.example.notification.dto.CampaignRequestDto;
+import com.example.notification.service.CampaignService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Bulk email campaigns: create, upload CSV recipients while in DRAFT, then start. Delivery runs in
+// the background; GET reports its progress. See CampaignRunner.
+@RestController
+@RequestMapping("/api/v1/notifications/campaigns")
+@RequiredArgsConstructor
+public class CampaignController {
+
+    private final CampaignService campaignService;
+
+    @PostMapping
+    public ResponseEntity<?> createCampaign(@Valid @RequestBody CampaignRequestDto request) {
+        return handle(() -> Optional.of(campaignService.create(request)), HttpStatus.CREATED);
+    }
+
+    // The file is streamed into the recipient table, never held in memory as a whole
+    @PostMapping(value = "/{id}/recipients", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadRecipients(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        try (InputStream csv = file.getInputStream()) {
+            return handle(() -> campaignService.uploadRecipients(id, csv), HttpStatus.OK);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(new NotificationController.ErrorResponse("Unreadable upload: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/start")
+    public ResponseEntity<?> startCampaign(@PathVariable Long id) {
+        return handle(() -> campaignService.start(id), HttpStatus.ACCEPTED);
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<?> pauseCampaign(@PathVariable Long id) {
+        return handle(() -> campaignService.pause(id), HttpStatus.OK);
+    }
+
+    // Also restarts a FAILED campaign from its last checkpoint
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<?> resumeCampaign(@PathVariable Long id) {
+        return handle(() -> campaignService.resume(id), HttpStatus.ACCEPTED);
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancelCampaign(@PathVariable Long id) {
+        return handle(() -> campaignService.cancel(id), HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CampaignDto> getCampaign(@PathVariable Long id) {
+        return ResponseEntity.of(campaignService.get(id));
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<CampaignDto>> getCampaigns(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(campaignService.list(page, size));
+    }
+
+    private ResponseEntity<?> handle(Supplier<Optional<CampaignDto>> action, HttpStatus status) {
+        try {
+            return action.get()
+                .<ResponseEntity<?>>map(campaign -> ResponseEntity.status(status).body(campaign))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new NotificationController.ErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new NotificationController.ErrorResponse(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.notification.controller;
+
+import com.example.notification.dto.ReplayRequestDto;
+import com.example.notification.dto.ReplayStatusDto;
+import com.example.notification.service.EventReplayService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Admin operation for re-processing events after an outage; see EventReplayService
+@RestController
+@RequestMapping("/api/v1/notifications/admin/replay")
+@RequiredArgsConstructor
+public class EventReplayController {
+
+    private final EventReplayService eventReplayService;
+
+    @PostMapping
+    public ResponseEntity<?> startReplay(@Valid @RequestBody ReplayRequestDto request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(eventReplayService.start(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new NotificationController.ErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new NotificationController.ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // The running replay, or the last one to finish
+    @GetMapping
+    public ResponseEntity<ReplayStatusDto> getReplay() {
+        return ResponseEntity.of(eventReplayService.getStatus());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ReplayStatusDto> cancelReplay() {
+        return ResponseEntity.of(eventReplayService.cancel());
+    }
+}
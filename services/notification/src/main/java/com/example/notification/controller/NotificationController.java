@@ -1,5 +1,6 @@
 package com.example.notification.controller;
 
+import com.example.notification.channel.ChannelDispatcher;
 import com.example.notification.dto.*;
 import com.example.notification.model.Notification;
 import com.example.notification.repository.NotificationRepository;
@@ -8,24 +9,22 @@ import com.example.notification.event.TransactionEvent;
 import com.example.notification.service.EmailService;
 import com.example.notification.service.EventBroadcasterService;
 import com.example.notification.service.EventTrackerService;
+import com.example.notification.service.KafkaConsumerMonitor;
 import com.example.notification.service.KafkaProducerService;
+import com.example.notification.service.NotificationCounterService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -40,6 +39,9 @@ public class NotificationController {
     private final EventTrackerService eventTrackerService;
     private final EventBroadcasterService eventBroadcasterService;
     private final KafkaProducerService kafkaProducerService;
+    private final NotificationCounterService notificationCounterService;
+    private final ChannelDispatcher channelDispatcher;
+    private final KafkaConsumerMonitor kafkaConsumerMonitor;
 
     @GetMapping
     public ResponseEntity<Page<NotificationResponseDto>> getAllNotifications(
@@ -51,38 +53,40 @@ public class NotificationController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}")
+    public ResponseEntity<NotificationResponseDto> getNotification(@PathVariable Long id) {
+        return notificationRepository.findById(id)
+                .map(notification -> NotificationResponseDto.fromEntity(notification, emailService.renderBody(notification)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/resend")
+    public ResponseEntity<NotificationResponseDto> resendNotification(@PathVariable Long id) {
+        return emailService.resend(id)
+                .map(NotificationResponseDto::fromEntity)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Served from in-memory counters; no table scans
     @GetMapping("/stats")
     public ResponseEntity<NotificationStatsDto> getStatistics() {
-        long total = notificationRepository.count();
-        long sentCount = notificationRepository.countByStatus(Notification.NotificationStatus.SENT);
-        long failedCount = notificationRepository.countByStatus(Notification.NotificationStatus.FAILED);
-        long pendingCount = notificationRepository.countByStatus(Notification.NotificationStatus.PENDING);
-
-        double successRate = total > 0 ? (double) sentCount / total * 100 : 0.0;
-
-        NotificationStatsDto stats = NotificationStatsDto.builder()
-                .totalNotifications(total)
-                .sentCount(sentCount)
-                .failedCount(failedCount)
-                .pendingCount(pendingCount)
-                .successRate(successRate)
-                .build();
-
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(notificationCounterService.getStatistics());
     }
 
+    @GetMapping("/channels")
+    public ResponseEntity<List<ChannelStatusDto>> getChannelStatus() {
+        return ResponseEntity.ok(channelDispatcher.getStatus());
+    }
+
+    // Connectivity and lag come from the admin client, rates and poll times from the listener containers
     @GetMapping("/kafka/status")
     public ResponseEntity<KafkaStatusDto> getKafkaStatus() {
-        LocalDateTime lastEventTime = eventTrackerService.getLastEventTime();
-        int eventCount = eventTrackerService.getEventCount();
-
-        KafkaStatusDto status = KafkaStatusDto.builder()
-                .isConnected(eventCount > 0 || lastEventTime != null)
-                .consumerGroup("notification-group")
-                .topics(List.of("transaction-events", "account-events"))
-                .lastEventTime(lastEventTime)
-                .build();
-
+        KafkaStatusDto status = kafkaConsumerMonitor.getStatus();
+        status.setLastEventTime(eventTrackerService.getLastEventTime());
+        status.setTotalEvents(eventTrackerService.getTotalEventCount());
+        status.setEventsByTopic(eventTrackerService.getTopicCounts());
         return ResponseEntity.ok(status);
     }
 
@@ -93,21 +97,11 @@ public class NotificationController {
         return ResponseEntity.ok(events);
     }
 
+    // Event ids are tracker sequence numbers, so a reconnecting EventSource resumes via Last-Event-ID
     @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamEvents() {
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        eventBroadcasterService.addEmitter(emitter);
-
-        // Send initial connection message
-        try {
-            emitter.send(SseEmitter.event()
-                    .name("connected")
-                    .data("Connected to notification event stream"));
-        } catch (IOException e) {
-            log.error("Error sending initial SSE message", e);
-            emitter.completeWithError(e);
-        }
-
+        eventBroadcasterService.addEmitter(emitter, lastEventId);
         return emitter;
     }
 
@@ -117,16 +111,8 @@ public class NotificationController {
         try {
             log.info("Test notification requested: email={}, subject={}", request.getEmail(), request.getSubject());
 
-            emailService.sendEmail(request.getEmail(), request.getSubject(), request.getMessage());
-
-            // Get the latest notification (the one we just created)
-            Page<Notification> latest = notificationRepository.findAllByOrderBySentAtDesc(PageRequest.of(0, 1));
-            if (latest.hasContent()) {
-                NotificationResponseDto response = NotificationResponseDto.fromEntity(latest.getContent().get(0));
-                return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            }
-
-            return ResponseEntity.status(HttpStatus.CREATED).build();
+            Notification notification = emailService.sendEmail(request.getEmail(), request.getSubject(), request.getMessage());
+            return ResponseEntity.status(HttpStatus.CREATED).body(NotificationResponseDto.fromEntity(notification, notification.getMessage()));
         } catch (Exception e) {
             log.error("Error sending test notification", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -185,7 +171,7 @@ public class NotificationController {
     }
 
     // Simple error response class
-    private static class ErrorResponse {
+    static class ErrorResponse {
         private final String message;
         private final String timestamp = LocalDateTime.now().toString();
 
@@ -220,19 +206,11 @@ public class NotificationController {
         }
     }
 
+    // Forwarded to the static handler so the dashboard is served from its in-memory, gzipped copy
+    // with the same ETag and caching as /notification-dashboard.html
     @GetMapping(value = "/dashboard", produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> getDashboard() {
-        try {
-            Resource resource = new ClassPathResource("static/notification-dashboard.html");
-            String html = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_HTML);
-            return new ResponseEntity<>(html, headers, HttpStatus.OK);
-        } catch (IOException e) {
-            log.error("Error loading dashboard HTML", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("<html><body><h1>Error loading dashboard</h1></body></html>");
-        }
+    public ModelAndView getDashboard() {
+        return new ModelAndView("forward:/notification-dashboard.html");
     }
 }
 
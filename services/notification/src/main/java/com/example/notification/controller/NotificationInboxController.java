@@ -0,0 +1,66 @@
+package com.example.notification.controller;
+
+import com.example.notification.dto.NotificationInboxPageDto;
+import com.example.notification.dto.NotificationResponseDto;
+import com.example.notification.service.EmailService;
+import com.example.notification.service.NotificationInboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/notifications/users/{userId}/inbox")
+@RequiredArgsConstructor
+public class NotificationInboxController {
+
+    private final NotificationInboxService notificationInboxService;
+    private final EmailService emailService;
+
+    @GetMapping
+    public ResponseEntity<?> getInbox(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean unreadOnly) {
+        try {
+            NotificationInboxPageDto page = notificationInboxService.getInbox(userId, cursor, size, unreadOnly);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new NotificationController.ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("unread", notificationInboxService.countUnread(userId)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<NotificationResponseDto> getNotification(@PathVariable Long userId, @PathVariable Long id) {
+        return notificationInboxService.getNotification(userId, id)
+                .map(notification -> NotificationResponseDto.fromEntity(notification, emailService.renderBody(notification)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/read")
+    public ResponseEntity<Void> markRead(@PathVariable Long userId, @PathVariable Long id) {
+        return notificationInboxService.markRead(userId, id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{id}/read")
+    public ResponseEntity<Void> markUnread(@PathVariable Long userId, @PathVariable Long id) {
+        return notificationInboxService.markUnread(userId, id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/read-all")
+    public ResponseEntity<Map<String, Integer>> markAllRead(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("updated", notificationInboxService.markAllRead(userId)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.notification.dto;
+
+import com.example.notification.model.Campaign;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignDto {
+    private Long id;
+    private String name;
+    private String subject;
+    private String templateId;
+    private Campaign.RecipientSource source;
+    private Campaign.CampaignStatus status;
+    private Long totalRecipients;
+    private Long invalidRecipients;
+    // Recipients handled so far, sent or skipped
+    private Long processed;
+    private Long sent;
+    private Long skipped;
+    private Double progressPercent;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String error;
+
+    public static CampaignDto fromEntity(Campaign campaign) {
+        long total = campaign.getTotalRecipients();
+        // Not the checkpoint: seq has gaps where duplicate addresses were dropped
+        long processed = campaign.getSent() + campaign.getSkipped();
+        return CampaignDto.builder()
+                .id(campaign.getId())
+                .name(campaign.getName())
+                .subject(campaign.getSubject())
+                .templateId(campaign.getTemplateId())
+                .source(campaign.getSource())
+                .status(campaign.getStatus())
+                .totalRecipients(total)
+                .invalidRecipients(campaign.getInvalidRecipients())
+                .processed(processed)
+                .sent(campaign.getSent())
+                .skipped(campaign.getSkipped())
+                .progressPercent(total == 0 ? 0.0 : Math.round(processed * 1000.0 / total) / 10.0)
+                .createdAt(campaign.getCreatedAt())
+                .startedAt(campaign.getStartedAt())
+                .completedAt(campaign.getCompletedAt())
+                .error(campaign.getError())
+                .build();
+    }
+}
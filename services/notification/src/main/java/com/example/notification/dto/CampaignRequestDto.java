@@ -0,0 +1,31 @@
+package com.example.notification.dto;
+
+import com.example.notification.model.Campaign;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignRequestDto {
+    @NotBlank(message = "name is required")
+    private String name;
+
+    @NotBlank(message = "subject is required")
+    private String subject;
+
+    // EmailTemplate name; defaults to CAMPAIGN
+    private String templateId;
+
+    // Template variables shared by every recipient; email and name are added per recipient
+    private Map<String, Object> params;
+
+    // CSV recipients are uploaded to /{id}/recipients before the campaign is started
+    @NotNull(message = "source is required")
+    private Campaign.RecipientSource source;
+}
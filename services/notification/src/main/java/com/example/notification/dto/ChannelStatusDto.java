@@ -0,0 +1,20 @@
+package com.example.notification.dto;
+
+import com.example.notification.channel.ChannelType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelStatusDto {
+    private ChannelType channel;
+    private String circuitState;
+    private Integer queued;
+    private Long sent;
+    private Long failed;
+    private Long dropped;
+}
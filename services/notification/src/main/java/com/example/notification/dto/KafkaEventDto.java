@@ -1,5 +1,6 @@
 package com.example.notification.dto;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,7 +13,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class KafkaEventDto {
+    private Long sequence;
     private String eventType;
+    // Original event JSON, emitted as-is rather than as an escaped string
+    @JsonRawValue
     private String eventData;
     private LocalDateTime timestamp;
     private String topic;
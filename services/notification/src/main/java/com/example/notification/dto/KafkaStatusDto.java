@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -17,8 +18,13 @@ public class KafkaStatusDto {
     private String consumerGroup;
     private List<String> topics;
     private LocalDateTime lastEventTime;
+    private Long totalEvents;
+    private Map<String, Long> eventsByTopic;
+    // From the admin client, refreshed every application.config.kafka.lag-refresh-ms
+    private LocalDateTime lagUpdatedAt;
+    private Long totalLag;
+    private Map<String, Long> lagByTopic;
+    private Map<String, Double> consumedPerSecondByTopic;
+    private List<PartitionLagDto> partitions;
+    private List<ListenerStatusDto> listeners;
 }
-
-
-
-
@@ -0,0 +1,28 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListenerStatusDto {
+    private String listenerId;
+    private List<String> topics;
+    private Boolean running;
+    private Boolean paused;
+    // As reported by the Kafka consumers of the container
+    private Double recordsPerSecond;
+    private Double secondsSinceLastPoll;
+    // Batch processing time, from the moment the listener is handed the poll
+    private Long batches;
+    private Double processingMeanMs;
+    private Double processingP95Ms;
+    private Double processingP99Ms;
+    private Double processingMaxMs;
+}
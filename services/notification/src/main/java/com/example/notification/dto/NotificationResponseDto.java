@@ -1,6 +1,7 @@
 package com.example.notification.dto;
 
 import com.example.notification.model.Notification;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,17 +18,23 @@ public class NotificationResponseDto {
     private Long userId;
     private String email;
     private String subject;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String message;
     private Notification.NotificationStatus status;
     private LocalDateTime sentAt;
 
+    // Lists leave the body out; it is rendered only when a single notification is requested
     public static NotificationResponseDto fromEntity(Notification notification) {
+        return fromEntity(notification, null);
+    }
+
+    public static NotificationResponseDto fromEntity(Notification notification, String message) {
         return NotificationResponseDto.builder()
                 .id(notification.getId())
                 .userId(notification.getUserId())
                 .email(notification.getEmail())
                 .subject(notification.getSubject())
-                .message(notification.getMessage())
+                .message(message)
                 .status(notification.getStatus())
                 .sentAt(notification.getSentAt())
                 .build();
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -15,6 +17,7 @@ public class NotificationStatsDto {
     private Long failedCount;
     private Long pendingCount;
     private Double successRate;
+    private List<StatsBucketDto> timeline;
 }
 
 
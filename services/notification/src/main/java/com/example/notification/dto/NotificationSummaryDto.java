@@ -0,0 +1,26 @@
+package com.example.notification.dto;
+
+import com.example.notification.model.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Inbox row without the message body; built directly by a JPQL constructor expression
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSummaryDto {
+    private Long id;
+    private String subject;
+    private Notification.NotificationStatus status;
+    private LocalDateTime sentAt;
+    private LocalDateTime readAt;
+
+    public boolean isRead() {
+        return readAt != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionLagDto {
+    private String topic;
+    private Integer partition;
+    // Null until the group has committed an offset for the partition
+    private Long committedOffset;
+    private Long endOffset;
+    private Long lag;
+}
@@ -0,0 +1,29 @@
+package com.example.notification.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayRequestDto {
+    // Defaults to transaction-events and account-events
+    private List<String> topics;
+
+    // Record timestamps, in the service's time zone
+    @NotNull(message = "from is required")
+    private LocalDateTime from;
+
+    // Optional; without it the replay runs up to the end of each partition as of its start
+    private LocalDateTime to;
+
+    // Optional; defaults to application.config.replay.rate-per-second
+    @Positive(message = "ratePerSecond must be positive")
+    private Double ratePerSecond;
+}
@@ -0,0 +1,30 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayStatusDto {
+    private String id;
+    private String state;
+    private List<String> topics;
+    private String currentTopic;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Double ratePerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long read;
+    private Long created;
+    private Long resent;
+    private Long skipped;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsBucketDto {
+    private LocalDateTime minute;
+    private Long sentCount;
+    private Long failedCount;
+}
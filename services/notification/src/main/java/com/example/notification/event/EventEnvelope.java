@@ -0,0 +1,5 @@
+package com.example.notification.event;
+
+// A deserialized event together with the record value it was read from
+public record EventEnvelope<T>(T payload, byte[] raw) {
+}
@@ -5,17 +5,25 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class LoanEvent {
+    private String eventId;
+    private Long loanId;
     private Long authId;
     private Long accountId;
     private BigDecimal amount;
+    private BigDecimal paymentAmount;
     private Integer tenureMonths;
     private BigDecimal balance;
+    private LocalDate dueDate;
     private String status;
     private String email;
-    private String eventType; // APPROVED, REPAYMENT, OVERDUE, etc.
-}
\ No newline at end of file
+    private String reminderType; // DUE_IN_7_DAYS, DUE_IN_1_DAY, OVERDUE_1_DAY
+    private String eventType; // LOAN_APPLIED, LOAN_DISBURSED, LOAN_PAYMENT, LOAN_OVERDUE, LOAN_PAID, LOAN_DUE_REMINDER
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,84 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A bulk send of one template to a list of recipients held in campaign_recipients. Delivery is
+// checkpointed by recipient seq, and the instance running it holds a renewable lease.
+@Entity
+@Table(name = "campaigns")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Campaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private String subject;
+
+    // EmailTemplate name, and the campaign-wide variables as JSON; each recipient adds email and name
+    @Column(nullable = false, length = 64)
+    private String templateId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String templateParams;
+
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private RecipientSource source;
+
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private CampaignStatus status;
+
+    private long totalRecipients;
+
+    // CSV rows rejected for a missing, malformed or repeated address
+    private long invalidRecipients;
+
+    // Every recipient up to this seq has been handled
+    private long checkpoint;
+
+    private long sent;
+
+    // Recipients already emailed before a resume
+    private long skipped;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    @Column(length = 64)
+    private String leaseOwner;
+
+    private LocalDateTime leaseUntil;
+
+    @Column(length = 1000)
+    private String error;
+
+    public enum RecipientSource {
+        // Uploaded as CSV before the campaign starts
+        CSV,
+        // Every user with an address on record, snapshotted from notifications when it starts
+        KNOWN_USERS
+    }
+
+    public enum CampaignStatus {
+        DRAFT, RUNNING, PAUSED, COMPLETED, CANCELLED, FAILED
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// One recipient of a campaign, numbered from 1 in load order. Rows are written in JDBC batches by
+// CampaignService and removed once the campaign is over. An address is listed once per campaign,
+// ignoring case, by a unique index NotificationSchemaInitializer creates; later duplicates are
+// dropped at load and leave gaps in seq.
+@Entity
+@Table(name = "campaign_recipients")
+@IdClass(CampaignRecipient.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignRecipient {
+
+    @Id
+    private Long campaignId;
+
+    @Id
+    private Long seq;
+
+    @Column(nullable = false)
+    private String email;
+
+    private String name;
+
+    private Long userId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long campaignId;
+        private Long seq;
+    }
+}
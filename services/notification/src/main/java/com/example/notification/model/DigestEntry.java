@@ -0,0 +1,38 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A transaction event buffered for a digest. The row is written before the event's offset is
+// committed and removed once the digest holding it is stored, so events buffered by an instance
+// that dies are still sent. Rows are written and read with JDBC by NotificationCoalescer.
+@Entity
+@Table(name = "digest_entries", indexes = {
+    @Index(name = "idx_digest_entries_buffered_at", columnList = "buffered_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DigestEntry {
+
+    // The event key, or a generated one for events that carry no reference
+    @Id
+    @Column(name = "entry_key", length = 255)
+    private String entryKey;
+
+    @Column(nullable = false)
+    private String email;
+
+    private Long userId;
+
+    // The event as JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "buffered_at", nullable = false)
+    private LocalDateTime bufferedAt;
+}
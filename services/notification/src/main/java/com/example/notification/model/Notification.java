@@ -9,6 +9,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+// Range-partitioned by sent_at month, with idx_notifications_user_sent (user_id, sent_at, id) backing
+// the inbox keyset; both are managed by NotificationSchemaInitializer, not by ddl-auto
 @Table(name = "notifications")
 @Data
 @NoArgsConstructor
@@ -16,8 +18,10 @@ import java.time.LocalDateTime;
 @Builder
 public class Notification {
 
+    // Pooled sequence so Hibernate can batch inserts; one round trip reserves 50 ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = true)
@@ -29,9 +33,20 @@ public class Notification {
     @Column(nullable = false)
     private String subject;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // Only ad-hoc emails, and rows written before bodies were templated, store the rendered body
+    @Column(columnDefinition = "TEXT")
     private String message;
 
+    // Otherwise the body is re-rendered on demand from the EmailTemplate name, the template
+    // version it was written for, and its variables as compact JSON
+    @Column(length = 64)
+    private String templateId;
+
+    private Integer templateVersion;
+
+    @Column(columnDefinition = "TEXT")
+    private String templateParams;
+
     @Column(nullable = false)
     private LocalDateTime sentAt;
 
@@ -39,7 +54,25 @@ public class Notification {
     @Enumerated(EnumType.STRING)
     private NotificationStatus status;
 
+    // Null until the user opens or acknowledges the notification in the inbox
+    private LocalDateTime readAt;
+
+    // Delivery lane; null on rows written before lanes existed
+    @Column(length = 16)
+    @Enumerated(EnumType.STRING)
+    private NotificationPriority priority;
+
+    // Set while a BULK notification waits in the table because its lane was full
+    private LocalDateTime deferredAt;
+
+    // The campaign a campaign email belongs to; its shared template params are read from there
+    private Long campaignId;
+
     public enum NotificationStatus {
         PENDING, SENT, FAILED
     }
+
+    public enum NotificationPriority {
+        HIGH, NORMAL, BULK
+    }
 }
\ No newline at end of file
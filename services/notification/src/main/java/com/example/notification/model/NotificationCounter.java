@@ -0,0 +1,23 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Running total of notifications per status, maintained by additive deltas
+@Entity
+@Table(name = "notification_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 32)
+    private Notification.NotificationStatus status;
+
+    @Column(name = "count", nullable = false)
+    private long count;
+}
@@ -0,0 +1,57 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Identity of an event that already produced a notification. The primary key is what makes
+// delivery idempotent; rows older than the retention window are compacted away.
+@Entity
+@Table(name = "processed_events", indexes = {
+    @Index(name = "idx_processed_events_processed_at", columnList = "processed_at")
+})
+@Getter
+@NoArgsConstructor
+public class ProcessedEvent implements Persistable<String> {
+
+    @Id
+    @Column(name = "event_key", length = 255)
+    private String eventKey;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    // The notification the event produced; a digest is shared by all of its events. Null on keys
+    // recorded before it was tracked.
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    // Keys are only ever inserted, so skip the select-before-merge Spring Data does for assigned ids
+    @Transient
+    private boolean fresh = true;
+
+    public ProcessedEvent(String eventKey, LocalDateTime processedAt, Long notificationId) {
+        this.eventKey = eventKey;
+        this.processedAt = processedAt;
+        this.notificationId = notificationId;
+    }
+
+    @Override
+    public String getId() {
+        return eventKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.fresh = false;
+    }
+}
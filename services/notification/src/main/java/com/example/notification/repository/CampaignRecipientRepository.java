@@ -0,0 +1,23 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.CampaignRecipient;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface CampaignRecipientRepository extends JpaRepository<CampaignRecipient, CampaignRecipient.Key> {
+
+    // Next chunk after the given seq, walking the primary key
+    @Query("SELECT r FROM CampaignRecipient r WHERE r.campaignId = :campaignId AND r.seq > :after ORDER BY r.seq")
+    List<CampaignRecipient> findChunk(@Param("campaignId") Long campaignId, @Param("after") long after, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CampaignRecipient r WHERE r.campaignId = :campaignId")
+    int deleteByCampaignId(@Param("campaignId") Long campaignId);
+}
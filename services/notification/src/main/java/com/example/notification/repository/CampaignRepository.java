@@ -0,0 +1,66 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.Campaign;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CampaignRepository extends JpaRepository<Campaign, Long> {
+    Page<Campaign> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Campaign c WHERE c.id = :id")
+    Optional<Campaign> findForUpdate(@Param("id") Long id);
+
+    @Query("SELECT c.status FROM Campaign c WHERE c.id = :id")
+    Optional<Campaign.CampaignStatus> findStatus(@Param("id") Long id);
+
+    // Campaigns that should be running but have no live owner
+    @Query("SELECT c.id FROM Campaign c WHERE c.status = :status AND (c.leaseUntil IS NULL OR c.leaseUntil < :now)")
+    List<Long> findUnowned(@Param("status") Campaign.CampaignStatus status, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Campaign c SET c.leaseOwner = :owner, c.leaseUntil = :until " +
+           "WHERE c.id = :id AND c.status = :status AND (c.leaseUntil IS NULL OR c.leaseUntil < :now OR c.leaseOwner = :owner)")
+    int claim(@Param("id") Long id, @Param("status") Campaign.CampaignStatus status, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // Returns 0 once the campaign left RUNNING or another instance took it over
+    @Transactional
+    @Modifying
+    @Query("UPDATE Campaign c SET c.leaseUntil = :until WHERE c.id = :id AND c.leaseOwner = :owner AND c.status = :status")
+    int renewLease(@Param("id") Long id, @Param("status") Campaign.CampaignStatus status, @Param("owner") String owner,
+                   @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Campaign c SET c.leaseOwner = NULL, c.leaseUntil = NULL WHERE c.id = :id AND c.leaseOwner = :owner")
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Campaign c SET c.checkpoint = :checkpoint, c.sent = :sent, c.skipped = :skipped " +
+           "WHERE c.id = :id AND c.leaseOwner = :owner")
+    int saveProgress(@Param("id") Long id, @Param("owner") String owner, @Param("checkpoint") long checkpoint,
+                     @Param("sent") long sent, @Param("skipped") long skipped);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Campaign c SET c.status = :to, c.completedAt = :completedAt, c.error = :error " +
+           "WHERE c.id = :id AND c.status IN :from")
+    int transition(@Param("id") Long id, @Param("from") Collection<Campaign.CampaignStatus> from,
+                   @Param("to") Campaign.CampaignStatus to, @Param("completedAt") LocalDateTime completedAt,
+                   @Param("error") String error);
+}
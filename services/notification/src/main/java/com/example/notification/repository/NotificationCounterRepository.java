@@ -0,0 +1,18 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Notification.NotificationStatus> {
+
+    // Additive so several instances can flush concurrently
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificationCounter c SET c.count = c.count + :delta WHERE c.status = :status")
+    int addDelta(@Param("status") Notification.NotificationStatus status, @Param("delta") long delta);
+}
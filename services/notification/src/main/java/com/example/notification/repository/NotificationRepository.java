@@ -1,11 +1,92 @@
 package com.example.notification.repository;
 
 import com.example.notification.model.Notification;
+import com.example.notification.dto.NotificationSummaryDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     Page<Notification> findAllByOrderBySentAtDesc(Pageable pageable);
     long countByStatus(Notification.NotificationStatus status);
-}
\ No newline at end of file
+
+    // One scan, used only to seed notification_counters
+    @Query("SELECT n.status, COUNT(n) FROM Notification n GROUP BY n.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :to WHERE n.id IN :ids AND n.status = :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids,
+                         @Param("from") Notification.NotificationStatus from,
+                         @Param("to") Notification.NotificationStatus to);
+
+    // Inbox keyset pages, newest first; both walk idx_notifications_user_sent and never read message
+    @Query("SELECT new com.example.notification.dto.NotificationSummaryDto(n.id, n.subject, n.status, n.sentAt, n.readAt) " +
+           "FROM Notification n WHERE n.userId = :userId AND (:unreadOnly = false OR n.readAt IS NULL) " +
+           "ORDER BY n.sentAt DESC, n.id DESC")
+    List<NotificationSummaryDto> findInboxFirstPage(@Param("userId") Long userId,
+                                                    @Param("unreadOnly") boolean unreadOnly,
+                                                    Limit limit);
+
+    @Query("SELECT new com.example.notification.dto.NotificationSummaryDto(n.id, n.subject, n.status, n.sentAt, n.readAt) " +
+           "FROM Notification n WHERE n.userId = :userId AND (:unreadOnly = false OR n.readAt IS NULL) " +
+           "AND (n.sentAt, n.id) < (:sentAt, :id) " +
+           "ORDER BY n.sentAt DESC, n.id DESC")
+    List<NotificationSummaryDto> findInboxPageBefore(@Param("userId") Long userId,
+                                                     @Param("unreadOnly") boolean unreadOnly,
+                                                     @Param("sentAt") LocalDateTime sentAt,
+                                                     @Param("id") Long id,
+                                                     Limit limit);
+
+    Optional<Notification> findByIdAndUserId(Long id, Long userId);
+
+    long countByUserIdAndReadAtIsNull(Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :readAt WHERE n.id = :id AND n.userId = :userId AND n.readAt IS NULL")
+    int markRead(@Param("userId") Long userId, @Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = NULL WHERE n.id = :id AND n.userId = :userId")
+    int markUnread(@Param("userId") Long userId, @Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :readAt WHERE n.userId = :userId AND n.readAt IS NULL")
+    int markAllRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+
+    // Claims deferred notifications for the sweeper; SKIP LOCKED lets instances sweep side by side,
+    // and rows whose deferred_at is still ahead are claimed by another sweep
+    @Query(value = "SELECT * FROM notifications WHERE deferred_at <= :now AND status = 'PENDING' " +
+                   "ORDER BY deferred_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Notification> lockDeferred(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Claims notifications an instance queued in memory but never sent, e.g. because it crashed;
+    // createdBefore must lie further back than any message waits in a lane
+    @Query(value = "SELECT * FROM notifications WHERE status = 'PENDING' AND deferred_at IS NULL " +
+                   "AND sent_at < :createdBefore ORDER BY sent_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Notification> lockStranded(@Param("createdBefore") LocalDateTime createdBefore, @Param("limit") int limit);
+
+    // Which of these addresses a campaign has already emailed; since bounds the partitions scanned
+    @Query("SELECT n.email FROM Notification n WHERE n.campaignId = :campaignId AND n.sentAt >= :since AND n.email IN :emails")
+    List<String> findCampaignRecipients(@Param("campaignId") Long campaignId, @Param("since") LocalDateTime since,
+                                        @Param("emails") Collection<String> emails);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.deferredAt = :deferredAt WHERE n.id IN :ids")
+    int setDeferredAt(@Param("ids") Collection<Long> ids, @Param("deferredAt") LocalDateTime deferredAt);
+}
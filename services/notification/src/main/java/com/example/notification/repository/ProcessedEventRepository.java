@@ -0,0 +1,32 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.ProcessedEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+
+    @Query("SELECT p.eventKey FROM ProcessedEvent p WHERE p.eventKey IN :keys")
+    Set<String> findExistingKeys(@Param("keys") Collection<String> keys);
+
+    @Query("SELECT DISTINCT p.notificationId FROM ProcessedEvent p WHERE p.eventKey IN :keys AND p.notificationId IS NOT NULL")
+    List<Long> findNotificationIds(@Param("keys") Collection<String> keys);
+
+    // Keyset page used to (re)build the in-memory filter
+    @Query("SELECT p.eventKey FROM ProcessedEvent p WHERE p.eventKey > :after ORDER BY p.eventKey")
+    List<String> findKeysAfter(@Param("after") String after, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent p WHERE p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
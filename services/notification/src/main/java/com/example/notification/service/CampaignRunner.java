@@ -0,0 +1,282 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Campaign;
+import com.example.notification.model.CampaignRecipient;
+import com.example.notification.model.Notification;
+import com.example.notification.repository.CampaignRecipientRepository;
+import com.example.notification.repository.CampaignRepository;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.util.TokenBucket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Delivers RUNNING campaigns. One coordinator thread per campaign walks its recipients in seq order
+// a chunk at a time and hands each chunk to a worker pool shared by all campaigns, with at most
+// parallelism chunks of one campaign in flight. Chunks may finish out of order; the checkpoint only
+// advances over a contiguous run of finished chunks, so after a pause, crash or failover delivery
+// resumes right after it and at most the chunks that were in flight are read again. Those
+// recipients are skipped since their notifications exist. Ownership is a lease on the campaign row,
+// renewed on every chunk, so a campaign left behind by a dead instance is picked up by another one.
+@Slf4j
+@Component
+public class CampaignRunner {
+
+    private record Chunk(long lastSeq, Future<ChunkOutcome> outcome) {
+    }
+
+    private record ChunkOutcome(int sent, int skipped) {
+    }
+
+    private final CampaignRepository campaignRepository;
+    private final CampaignRecipientRepository campaignRecipientRepository;
+    private final EmailService emailService;
+    private final NotificationRepository notificationRepository;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final EmailDeliveryQueue emailDeliveryQueue;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<Long, Thread> running = new ConcurrentHashMap<>();
+    private final int chunkSize;
+    private final int parallelism;
+    private final long leaseMs;
+    private final long laneWaitMs;
+    private final TokenBucket limiter;
+
+    public CampaignRunner(CampaignRepository campaignRepository,
+                          CampaignRecipientRepository campaignRecipientRepository,
+                          EmailService emailService,
+                          NotificationRepository notificationRepository,
+                          EmailTemplateRenderer emailTemplateRenderer,
+                          EmailDeliveryQueue emailDeliveryQueue,
+                          ObjectMapper objectMapper,
+                          @Value("${application.config.campaigns.workers:4}") int workers,
+                          @Value("${application.config.campaigns.chunk-size:500}") int chunkSize,
+                          @Value("${application.config.campaigns.parallelism:2}") int parallelism,
+                          @Value("${application.config.campaigns.lease-ms:60000}") long leaseMs,
+                          @Value("${application.config.campaigns.lane-wait-ms:200}") long laneWaitMs,
+                          @Value("${application.config.campaigns.rate-per-second:0}") double ratePerSecond) {
+        this.campaignRepository = campaignRepository;
+        this.campaignRecipientRepository = campaignRecipientRepository;
+        this.emailService = emailService;
+        this.notificationRepository = notificationRepository;
+        this.emailTemplateRenderer = emailTemplateRenderer;
+        this.emailDeliveryQueue = emailDeliveryQueue;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.leaseMs = leaseMs;
+        this.laneWaitMs = laneWaitMs;
+        // Shared by every campaign on this instance, so concurrent campaigns split the rate
+        this.limiter = new TokenBucket(ratePerSecond, Math.max(1, (int) Math.min(ratePerSecond, chunkSize)));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "campaign-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Picks up RUNNING campaigns nobody holds a live lease on: ones just resumed elsewhere, or
+    // left behind by an instance that stopped
+    @Scheduled(fixedDelayString = "${application.config.campaigns.claim-interval-ms:10000}")
+    public void claimRunnable() {
+        campaignRepository.findUnowned(Campaign.CampaignStatus.RUNNING, LocalDateTime.now()).forEach(this::claim);
+    }
+
+    // Starts delivering the campaign here unless this or another instance already does
+    public void claim(Long id) {
+        if (running.containsKey(id)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (campaignRepository.claim(id, Campaign.CampaignStatus.RUNNING, instanceId, now, now.plusNanos(leaseMs * 1_000_000)) == 0) {
+            return;
+        }
+        // A scheduled claim and a resume can both get here; only the one that registers the thread starts it
+        Thread coordinator = Thread.ofPlatform().name("campaign-" + id).daemon().unstarted(() -> run(id));
+        if (running.putIfAbsent(id, coordinator) == null) {
+            coordinator.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Leases are left to expire so another instance takes over from the last checkpoint
+        running.values().forEach(Thread::interrupt);
+        workers.shutdownNow();
+    }
+
+    private void run(Long id) {
+        try {
+            Campaign campaign = campaignRepository.findById(id).orElseThrow();
+            log.info("Delivering campaign {} from recipient {} of {}", id, campaign.getCheckpoint() + 1, campaign.getTotalRecipients());
+            deliver(campaign);
+        } catch (InterruptedException e) {
+            log.info("Campaign {} interrupted, leaving it to be resumed from its checkpoint", id);
+        } catch (Exception e) {
+            log.error("Campaign {} failed", id, e);
+            campaignRepository.transition(id, Set.of(Campaign.CampaignStatus.RUNNING), Campaign.CampaignStatus.FAILED,
+                null, truncate(e.getMessage()));
+        } finally {
+            campaignRepository.releaseLease(id, instanceId);
+            running.remove(id);
+        }
+    }
+
+    private void deliver(Campaign campaign) throws Exception {
+        Long id = campaign.getId();
+        EmailTemplate template = EmailTemplate.valueOf(campaign.getTemplateId());
+        Map<String, Object> params = EmailParams.read(objectMapper, campaign.getTemplateParams());
+        Semaphore slots = new Semaphore(parallelism);
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        long checkpoint = campaign.getCheckpoint();
+        long sent = campaign.getSent();
+        long skipped = campaign.getSkipped();
+        long cursor = checkpoint;
+        boolean exhausted = false;
+
+        try {
+            while (true) {
+                // Also how a pause or cancel is noticed: the lease is only renewed while RUNNING
+                if (!renewLease(id)) {
+                    break;
+                }
+                if (!slots.tryAcquire(1, TimeUnit.SECONDS)) {
+                    continue;
+                }
+                List<CampaignRecipient> recipients = campaignRecipientRepository.findChunk(id, cursor, Limit.of(chunkSize));
+                if (recipients.isEmpty()) {
+                    slots.release();
+                    exhausted = true;
+                    break;
+                }
+                cursor = recipients.get(recipients.size() - 1).getSeq();
+                inFlight.add(new Chunk(cursor, workers.submit(() -> {
+                    try {
+                        return send(campaign, template, params, recipients);
+                    } finally {
+                        slots.release();
+                    }
+                })));
+
+                boolean advanced = false;
+                while (!inFlight.isEmpty() && inFlight.peek().outcome().isDone()) {
+                    Chunk chunk = inFlight.poll();
+                    ChunkOutcome outcome = outcome(chunk);
+                    checkpoint = chunk.lastSeq();
+                    sent += outcome.sent();
+                    skipped += outcome.skipped();
+                    advanced = true;
+                }
+                if (advanced) {
+                    campaignRepository.saveProgress(id, instanceId, checkpoint, sent, skipped);
+                }
+            }
+            // Whatever is in flight is finished either way, so the checkpoint covers it
+            while (!inFlight.isEmpty()) {
+                Chunk chunk = inFlight.poll();
+                ChunkOutcome outcome = outcome(chunk);
+                checkpoint = chunk.lastSeq();
+                sent += outcome.sent();
+                skipped += outcome.skipped();
+            }
+        } finally {
+            inFlight.forEach(chunk -> chunk.outcome().cancel(true));
+            campaignRepository.saveProgress(id, instanceId, checkpoint, sent, skipped);
+        }
+
+        if (exhausted && campaignRepository.transition(id, Set.of(Campaign.CampaignStatus.RUNNING),
+                Campaign.CampaignStatus.COMPLETED, LocalDateTime.now(), null) > 0) {
+            campaignRecipientRepository.deleteByCampaignId(id);
+            log.info("Campaign {} completed: {} sent, {} skipped", id, sent, skipped);
+        } else {
+            log.info("Campaign {} stopped at recipient {}: {} sent, {} skipped", id, checkpoint, sent, skipped);
+        }
+    }
+
+    // Renders and persists one chunk on the BULK lane through the regular batch path. Addresses are
+    // unique per campaign, so the only recipients to skip are ones an earlier attempt already
+    // emailed, found by their notification. The notifications refer to the campaign instead of
+    // copying its params, and carry no dedupe keys.
+    private ChunkOutcome send(Campaign campaign, EmailTemplate template, Map<String, Object> params,
+                              List<CampaignRecipient> recipients) throws InterruptedException {
+        Set<String> alreadySent = new HashSet<>(notificationRepository.findCampaignRecipients(campaign.getId(),
+            campaign.getStartedAt(), recipients.stream().map(CampaignRecipient::getEmail).toList()));
+
+        List<EmailService.EmailRequest> requests = new ArrayList<>(recipients.size());
+        for (CampaignRecipient recipient : recipients) {
+            if (alreadySent.contains(recipient.getEmail())) {
+                continue;
+            }
+            Map<String, Object> own = new HashMap<>();
+            own.put("email", recipient.getEmail());
+            own.put("name", recipient.getName());
+            Map<String, Object> variables = new HashMap<>(params);
+            variables.putAll(own);
+            String content = emailTemplateRenderer.render(template, variables);
+            requests.add(new EmailService.EmailRequest(recipient.getEmail(), campaign.getSubject(), content, template,
+                own, recipient.getUserId())
+                .withCampaign(campaign.getId())
+                .withPriority(Notification.NotificationPriority.BULK));
+        }
+        if (requests.isEmpty()) {
+            return new ChunkOutcome(0, recipients.size());
+        }
+
+        emailDeliveryQueue.awaitCapacity(Notification.NotificationPriority.BULK, requests.size(), laneWaitMs);
+        for (int i = 0; i < requests.size(); i++) {
+            limiter.acquire();
+        }
+        // A recipient whose notification could not be stored fails the chunk, so the checkpoint stays
+        // before it; a resume reads the chunk again and skips whoever was stored
+        long unsaved = emailService.sendEmails(requests).stream().filter(Objects::isNull).count();
+        if (unsaved > 0) {
+            throw new IllegalStateException(unsaved + " of " + requests.size()
+                + " notifications of campaign " + campaign.getId() + " could not be stored");
+        }
+        return new ChunkOutcome(requests.size(), recipients.size() - requests.size());
+    }
+
+    private boolean renewLease(Long id) {
+        return campaignRepository.renewLease(id, Campaign.CampaignStatus.RUNNING, instanceId,
+            LocalDateTime.now().plusNanos(leaseMs * 1_000_000)) > 0;
+    }
+
+    private static ChunkOutcome outcome(Chunk chunk) throws Exception {
+        try {
+            return chunk.outcome().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
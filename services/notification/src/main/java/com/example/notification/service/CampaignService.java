@@ -0,0 +1,290 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.CampaignDto;
+import com.example.notification.dto.CampaignRequestDto;
+import com.example.notification.model.Campaign;
+import com.example.notification.repository.CampaignRecipientRepository;
+import com.example.notification.repository.CampaignRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Creates campaigns and loads their recipients; delivery is CampaignRunner's. Recipients are never
+// held in memory as a whole: CSV uploads are parsed line by line and written in JDBC batches, and
+// the KNOWN_USERS snapshot is a single INSERT ... SELECT.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CampaignService {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    // A repeated address is dropped rather than emailed twice
+    private static final String INSERT_RECIPIENT = """
+        INSERT INTO campaign_recipients (campaign_id, seq, email, name, user_id) VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (campaign_id, lower(email)) DO NOTHING
+        """;
+
+    private static final String LAST_SEQ = "SELECT COALESCE(MAX(seq), 0) FROM campaign_recipients WHERE campaign_id = ?";
+
+    // The service does not own the user or account databases; every user that has been emailed
+    // has their latest address on record in notifications
+    private static final String SNAPSHOT_KNOWN_USERS = """
+        INSERT INTO campaign_recipients (campaign_id, seq, email, name, user_id)
+        SELECT ?, row_number() OVER (ORDER BY u.user_id), u.email, NULL, u.user_id
+        FROM (SELECT DISTINCT ON (user_id) user_id, email FROM notifications
+              WHERE user_id IS NOT NULL ORDER BY user_id, sent_at DESC) u
+        ON CONFLICT (campaign_id, lower(email)) DO NOTHING
+        """;
+
+    private final CampaignRepository campaignRepository;
+    private final CampaignRecipientRepository campaignRecipientRepository;
+    private final CampaignRunner campaignRunner;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Renders the template once with sample recipient fields, so a broken template or missing
+    // variable is rejected here rather than failing the first chunk
+    public CampaignDto create(CampaignRequestDto request) {
+        EmailTemplate template = parseTemplate(request.getTemplateId());
+        Map<String, Object> params = request.getParams() != null ? request.getParams() : Map.of();
+        Map<String, Object> sample = new HashMap<>(params);
+        sample.put("email", "recipient@example.com");
+        sample.put("name", "Recipient");
+        try {
+            emailTemplateRenderer.render(template, sample);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Template " + template + " cannot be rendered with these params: " + e.getMessage());
+        }
+
+        Campaign campaign = campaignRepository.save(Campaign.builder()
+            .name(request.getName())
+            .subject(request.getSubject())
+            .templateId(template.name())
+            .templateParams(EmailParams.write(objectMapper, params))
+            .source(request.getSource())
+            .status(Campaign.CampaignStatus.DRAFT)
+            .createdAt(LocalDateTime.now())
+            .build());
+        log.info("Created campaign {} '{}' with {} recipients", campaign.getId(), campaign.getName(), campaign.getSource());
+        return CampaignDto.fromEntity(campaign);
+    }
+
+    // Appends the recipients of a CSV with a header row naming an email column and optionally name
+    // and user_id. Rows without a valid address, and addresses already listed, are counted and
+    // dropped. Fields may be quoted, but not span lines.
+    public Optional<CampaignDto> uploadRecipients(Long id, InputStream csv) {
+        return transactionTemplate.execute(status -> campaignRepository.findForUpdate(id).map(campaign -> {
+            if (campaign.getSource() != Campaign.RecipientSource.CSV) {
+                throw new IllegalArgumentException("Campaign " + id + " takes its recipients from " + campaign.getSource());
+            }
+            requireStatus(campaign, Set.of(Campaign.CampaignStatus.DRAFT));
+            try {
+                loadCsv(campaign, csv);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unreadable recipient list: " + e.getMessage());
+            }
+            return CampaignDto.fromEntity(campaignRepository.save(campaign));
+        }));
+    }
+
+    public Optional<CampaignDto> start(Long id) {
+        Optional<CampaignDto> started = transactionTemplate.execute(status -> campaignRepository.findForUpdate(id).map(campaign -> {
+            requireStatus(campaign, Set.of(Campaign.CampaignStatus.DRAFT));
+            if (campaign.getSource() == Campaign.RecipientSource.KNOWN_USERS) {
+                campaign.setTotalRecipients(jdbcTemplate.update(SNAPSHOT_KNOWN_USERS, id));
+            }
+            if (campaign.getTotalRecipients() == 0) {
+                throw new IllegalArgumentException("Campaign " + id + " has no recipients");
+            }
+            campaign.setStatus(Campaign.CampaignStatus.RUNNING);
+            campaign.setStartedAt(LocalDateTime.now());
+            return CampaignDto.fromEntity(campaignRepository.save(campaign));
+        }));
+        started.ifPresent(campaign -> campaignRunner.claim(id));
+        return started;
+    }
+
+    // The runner stops after the chunks in flight; progress up to them is kept
+    public Optional<CampaignDto> pause(Long id) {
+        return transition(id, Set.of(Campaign.CampaignStatus.RUNNING), Campaign.CampaignStatus.PAUSED);
+    }
+
+    // Continues after the last checkpoint, here or on whichever instance claims it first. Recipients
+    // already emailed before the checkpoint was saved are skipped.
+    public Optional<CampaignDto> resume(Long id) {
+        Optional<CampaignDto> resumed = transition(id,
+            Set.of(Campaign.CampaignStatus.PAUSED, Campaign.CampaignStatus.FAILED), Campaign.CampaignStatus.RUNNING);
+        resumed.ifPresent(campaign -> campaignRunner.claim(id));
+        return resumed;
+    }
+
+    public Optional<CampaignDto> cancel(Long id) {
+        Optional<CampaignDto> cancelled = transition(id, Set.of(Campaign.CampaignStatus.DRAFT,
+            Campaign.CampaignStatus.RUNNING, Campaign.CampaignStatus.PAUSED, Campaign.CampaignStatus.FAILED),
+            Campaign.CampaignStatus.CANCELLED);
+        cancelled.ifPresent(campaign -> campaignRecipientRepository.deleteByCampaignId(id));
+        return cancelled;
+    }
+
+    public Optional<CampaignDto> get(Long id) {
+        return campaignRepository.findById(id).map(CampaignDto::fromEntity);
+    }
+
+    public Page<CampaignDto> list(int page, int size) {
+        return campaignRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(page, size)).map(CampaignDto::fromEntity);
+    }
+
+    private Optional<CampaignDto> transition(Long id, Set<Campaign.CampaignStatus> from, Campaign.CampaignStatus to) {
+        Optional<Campaign> campaign = campaignRepository.findById(id);
+        if (campaign.isEmpty()) {
+            return Optional.empty();
+        }
+        requireStatus(campaign.get(), from);
+        LocalDateTime completedAt = to == Campaign.CampaignStatus.CANCELLED ? LocalDateTime.now() : null;
+        if (campaignRepository.transition(id, from, to, completedAt, null) == 0) {
+            // Changed between the read and the update, e.g. the runner just completed it
+            throw new IllegalStateException("Campaign " + id + " is no longer " + from);
+        }
+        log.info("Campaign {} {} -> {}", id, campaign.get().getStatus(), to);
+        return campaignRepository.findById(id).map(CampaignDto::fromEntity);
+    }
+
+    private void loadCsv(Campaign campaign, InputStream csv) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Recipient list is empty");
+        }
+        List<String> columns = parseCsvLine(header.replace("\uFEFF", "")).stream()
+            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+            .toList();
+        int emailColumn = columns.indexOf("email");
+        int nameColumn = columns.indexOf("name");
+        int userIdColumn = columns.indexOf("user_id");
+        if (emailColumn < 0) {
+            throw new IllegalArgumentException("Recipient list needs an email column, found " + columns);
+        }
+
+        long firstSeq = jdbcTemplate.queryForObject(LAST_SEQ, Long.class, campaign.getId());
+        long seq = firstSeq;
+        long loaded = 0;
+        long invalid = 0;
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            String email = field(fields, emailColumn);
+            if (email == null || !EMAIL.matcher(email).matches()) {
+                invalid++;
+                continue;
+            }
+            batch.add(new Object[]{campaign.getId(), ++seq, email, field(fields, nameColumn), parseUserId(field(fields, userIdColumn))});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                loaded += insert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            loaded += insert(batch);
+        }
+        long rejected = invalid + (seq - firstSeq - loaded);
+        log.info("Campaign {}: loaded {} recipients, rejected {}", campaign.getId(), loaded, rejected);
+        campaign.setTotalRecipients(campaign.getTotalRecipients() + loaded);
+        campaign.setInvalidRecipients(campaign.getInvalidRecipients() + rejected);
+    }
+
+    // Returns how many rows were new
+    private int insert(List<Object[]> batch) {
+        return Arrays.stream(jdbcTemplate.batchUpdate(INSERT_RECIPIENT, batch)).sum();
+    }
+
+    // RFC 4180 fields on a single line: commas separate, double quotes enclose, "" is a literal quote
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long parseUserId(String value) {
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void requireStatus(Campaign campaign, Set<Campaign.CampaignStatus> allowed) {
+        if (!allowed.contains(campaign.getStatus())) {
+            throw new IllegalStateException("Campaign " + campaign.getId() + " is " + campaign.getStatus());
+        }
+    }
+
+    private static EmailTemplate parseTemplate(String templateId) {
+        if (templateId == null || templateId.isBlank()) {
+            return EmailTemplate.CAMPAIGN;
+        }
+        try {
+            return EmailTemplate.valueOf(templateId.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown template " + templateId);
+        }
+    }
+}
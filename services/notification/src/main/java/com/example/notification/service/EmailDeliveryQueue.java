@@ -0,0 +1,336 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.Notification.NotificationPriority;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.util.CircuitBreaker;
+import com.example.notification.util.TokenBucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Outbound mail split into priority lanes, each a bounded queue drained by its own pool of workers
+// with its own token bucket, so HIGH alerts never wait behind BULK receipts. Each worker keeps its
+// own SMTP connection open between messages. When the HIGH or NORMAL queue passes its high watermark
+// the Kafka listener containers are paused, and they are resumed once every such lane is back below
+// its low watermark. The BULK lane never pauses consumption: a full BULK queue refuses the task and
+// the caller leaves the notification deferred in the table. A circuit breaker shared by all lanes
+// stops the workers from hammering an SMTP server that keeps failing; messages wait in their queues
+// meanwhile instead of being marked FAILED. Whatever is still queued at shutdown is deferred in the
+// table for the sweeper; after a crash the sweeper reclaims it once it has been PENDING too long.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailDeliveryQueue {
+
+    private static final String LANE_PREFIX = "application.config.email.lanes.";
+    private static final long SHUTDOWN_WAIT_MS = 5000;
+
+    public record EmailTask(Long notificationId, String to, String subject, String content,
+                            NotificationPriority priority, long enqueuedNanos) {
+
+        public EmailTask(Long notificationId, String to, String subject, String content, NotificationPriority priority) {
+            this(notificationId, to, subject, content, priority, System.nanoTime());
+        }
+    }
+
+    private final JavaMailSender mailSender;
+    private final NotificationStatusWriter statusWriter;
+    private final NotificationRepository notificationRepository;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.config.email.idle-disconnect-ms:30000}")
+    private long idleDisconnectMs;
+
+    @Value("${application.config.email.from:noreply@bankapp.com}")
+    private String from;
+
+    @Value("${application.config.email.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${application.config.email.open-ms:30000}")
+    private long openMs;
+
+    private CircuitBreaker breaker;
+
+    private final Map<NotificationPriority, Lane> lanes = new EnumMap<>(NotificationPriority.class);
+    private final AtomicBoolean listenersPaused = new AtomicBoolean(false);
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void start() {
+        breaker = new CircuitBreaker(failureThreshold, openMs);
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            String key = priority.name().toLowerCase();
+            String prefix = LANE_PREFIX + key + ".";
+            Lane lane = new Lane(priority,
+                new ArrayBlockingQueue<>(environment.getProperty(prefix + "queue-capacity", Integer.class, 1000)),
+                // 0 disables pacing
+                new TokenBucket(environment.getProperty(prefix + "rate-per-second", Double.class, 0.0),
+                    environment.getProperty(prefix + "burst", Integer.class, 20)),
+                environment.getProperty(prefix + "high-watermark", Integer.class, 800),
+                environment.getProperty(prefix + "low-watermark", Integer.class, 200),
+                Timer.builder("notification.email.queue.wait")
+                    .description("Time emails spend queued before an SMTP worker picks them up")
+                    .tag("lane", key)
+                    .register(meterRegistry));
+            Gauge.builder("notification.email.queued", lane.queue, BlockingQueue::size)
+                .description("Emails waiting in a delivery lane")
+                .tag("lane", key)
+                .register(meterRegistry);
+
+            int workerCount = environment.getProperty(prefix + "workers", Integer.class, 2);
+            for (int i = 0; i < workerCount; i++) {
+                lane.workers.add(Thread.ofPlatform().name("smtp-" + key + "-worker-" + i).daemon().start(() -> drain(lane)));
+            }
+            lanes.put(priority, lane);
+            log.info("Started {} email lane with {} workers", priority, workerCount);
+        }
+    }
+
+    // Returns false only when the BULK lane is full. HIGH and NORMAL block if their queue is
+    // completely full, i.e. records fetched before the pause took effect.
+    public boolean enqueue(EmailTask task) throws InterruptedException {
+        Lane lane = lanes.get(task.priority());
+        if (task.priority() == NotificationPriority.BULK) {
+            return lane.queue.offer(task);
+        }
+        lane.queue.put(task);
+        if (lane.queue.size() >= lane.highWatermark && listenersPaused.compareAndSet(false, true)) {
+            log.warn("{} email queue at {} messages, pausing Kafka listeners", lane.priority, lane.queue.size());
+            consumerContainers().forEach(container -> container.pause());
+        }
+        return true;
+    }
+
+    public int size() {
+        return lanes.values().stream().mapToInt(lane -> lane.queue.size()).sum();
+    }
+
+    public int size(NotificationPriority priority) {
+        return lanes.get(priority).queue.size();
+    }
+
+    public int remainingCapacity(NotificationPriority priority) {
+        return lanes.get(priority).queue.remainingCapacity();
+    }
+
+    // Holds a bulk producer back while the lane cannot take needed more tasks, so it is paced by
+    // delivery instead of overflowing the lane into deferred rows or crowding out live notifications.
+    // An empty lane lets it through even when needed exceeds the lane's capacity.
+    public void awaitCapacity(NotificationPriority priority, int needed, long waitMs) throws InterruptedException {
+        BlockingQueue<EmailTask> queue = lanes.get(priority).queue;
+        while (queue.remainingCapacity() < needed && !queue.isEmpty()) {
+            TimeUnit.MILLISECONDS.sleep(waitMs);
+        }
+    }
+
+    private void drain(Lane lane) {
+        Transport transport = null;
+        EmailTask task = null;
+        while (running) {
+            try {
+                task = lane.queue.poll(idleDisconnectMs, TimeUnit.MILLISECONDS);
+                if (task == null) {
+                    // Let idle connections go instead of waiting for the server to drop them
+                    transport = close(transport);
+                    continue;
+                }
+                resumeIfDrained();
+                awaitPermit(lane);
+                lane.queueWait.record(System.nanoTime() - task.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                transport = deliver(task, transport);
+                task = null;
+            } catch (InterruptedException e) {
+                // A task taken but not sent goes back for stop() to defer
+                if (task != null) {
+                    lane.queue.offer(task);
+                }
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        close(transport);
+    }
+
+    private Transport deliver(EmailTask task, Transport transport) {
+        MimeMessage message;
+        try {
+            message = buildMessage(task);
+        } catch (MessagingException e) {
+            // A malformed address or header never reached the server; hand back the permit untested
+            breaker.release();
+            statusWriter.record(task.notificationId(), Notification.NotificationStatus.FAILED);
+            log.error("Email to: {} cannot be built: {}", task.to(), e.getMessage());
+            return transport;
+        }
+        try {
+            try {
+                transport = ensureConnected(transport);
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (SendFailedException e) {
+                throw e;
+            } catch (MessagingException e) {
+                // The server may have closed a pooled connection; retry once on a fresh one
+                transport = close(transport);
+                transport = ensureConnected(null);
+                transport.sendMessage(message, message.getAllRecipients());
+            }
+            breaker.onSuccess();
+            statusWriter.record(task.notificationId(), Notification.NotificationStatus.SENT);
+            log.info("Email sent to: {}, with subject: {}", task.to(), task.subject());
+        } catch (SendFailedException e) {
+            // The server answered and rejected the recipients, so it counts as healthy
+            breaker.onSuccess();
+            statusWriter.record(task.notificationId(), Notification.NotificationStatus.FAILED);
+            log.error("Email to: {} rejected: {}", task.to(), e.getMessage());
+        } catch (Exception e) {
+            breaker.onFailure();
+            transport = close(transport);
+            statusWriter.record(task.notificationId(), Notification.NotificationStatus.FAILED);
+            log.error("Failed to send email to: {}, error: {}", task.to(), e.getMessage(), e);
+        }
+        return transport;
+    }
+
+    private void awaitPermit(Lane lane) throws InterruptedException {
+        long delay;
+        while ((delay = breaker.permitDelayMs()) > 0) {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        }
+        lane.limiter.acquire();
+    }
+
+    private MimeMessage buildMessage(EmailTask task) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+        helper.setText(task.content(), true);
+        helper.setTo(task.to());
+        helper.setSubject(task.subject());
+        helper.setFrom(from);
+        mimeMessage.saveChanges();
+        return mimeMessage;
+    }
+
+    private Transport ensureConnected(Transport transport) throws MessagingException {
+        // No NOOP probe per message; a dropped connection surfaces as a send failure and is retried
+        if (transport != null) {
+            return transport;
+        }
+        JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+        Transport fresh = sender.getSession().getTransport(sender.getProtocol());
+        fresh.connect(sender.getHost(), sender.getPort(),
+            StringUtils.hasLength(sender.getUsername()) ? sender.getUsername() : null,
+            StringUtils.hasLength(sender.getPassword()) ? sender.getPassword() : null);
+        return fresh;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP transport: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void resumeIfDrained() {
+        if (listenersPaused.get() && lanes.values().stream()
+                .filter(lane -> lane.priority != NotificationPriority.BULK)
+                .allMatch(lane -> lane.queue.size() <= lane.lowWatermark)
+                && listenersPaused.compareAndSet(true, false)) {
+            log.info("Email queues down to {} messages, resuming Kafka listeners", size());
+            consumerContainers().forEach(container -> container.resume());
+        }
+    }
+
+    // The dashboard relay sends no email and must keep flowing while delivery is throttled
+    private List<MessageListenerContainer> consumerContainers() {
+        return listenerRegistry.getListenerContainers().stream()
+            .filter(container -> !EventRelayService.RELAY_LISTENER_ID.equals(container.getListenerId()))
+            .toList();
+    }
+
+    // Messages still queued at shutdown are deferred, so the sweeper of this or another instance
+    // requeues them. Workers get a moment to finish the message they are sending.
+    @PreDestroy
+    public void stop() {
+        running = false;
+        lanes.values().forEach(lane -> lane.workers.forEach(Thread::interrupt));
+        List<Long> unsent = new ArrayList<>();
+        for (Lane lane : lanes.values()) {
+            for (Thread worker : lane.workers) {
+                try {
+                    worker.join(SHUTDOWN_WAIT_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<EmailTask> drained = new ArrayList<>();
+            lane.queue.drainTo(drained);
+            if (!drained.isEmpty()) {
+                log.info("Deferring {} emails queued in the {} lane at shutdown", drained.size(), lane.priority);
+                drained.forEach(task -> unsent.add(task.notificationId()));
+            }
+        }
+        if (!unsent.isEmpty()) {
+            try {
+                notificationRepository.setDeferredAt(unsent, LocalDateTime.now());
+            } catch (Exception e) {
+                log.error("Failed to defer {} queued emails at shutdown; the sweeper reclaims them later: {}",
+                    unsent.size(), e.getMessage());
+            }
+        }
+    }
+
+    private static final class Lane {
+        private final NotificationPriority priority;
+        private final BlockingQueue<EmailTask> queue;
+        private final TokenBucket limiter;
+        private final int highWatermark;
+        private final int lowWatermark;
+        private final Timer queueWait;
+        private final List<Thread> workers = new ArrayList<>();
+
+        private Lane(NotificationPriority priority, BlockingQueue<EmailTask> queue, TokenBucket limiter,
+                     int highWatermark, int lowWatermark, Timer queueWait) {
+            this.priority = priority;
+            this.queue = queue;
+            this.limiter = limiter;
+            this.highWatermark = highWatermark;
+            this.lowWatermark = lowWatermark;
+            this.queueWait = queueWait;
+        }
+    }
+}
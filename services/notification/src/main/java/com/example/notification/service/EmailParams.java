@@ -0,0 +1,75 @@
+package com.example.notification.service;
+
+import com.example.notification.event.AccountEvent;
+import com.example.notification.event.LoanEvent;
+import com.example.notification.event.TransactionEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Template variables stored with each notification. Only what the template prints is kept, as
+// strings, so the stored JSON stays small and renders identically after a round trip.
+final class EmailParams {
+
+    private static final TypeReference<Map<String, Object>> TYPE = new TypeReference<>() {
+    };
+
+    private EmailParams() {
+    }
+
+    static Map<String, Object> transaction(TransactionEvent event) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        put(params, "transactionReference", event.getTransactionReference());
+        put(params, "amount", event.getAmount());
+        put(params, "type", event.getType());
+        put(params, "status", event.getStatus());
+        return params;
+    }
+
+    static Map<String, Object> account(AccountEvent event) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        put(params, "accountNumber", event.getAccountNumber());
+        put(params, "eventType", event.getEventType());
+        put(params, "balance", event.getBalance());
+        put(params, "currency", event.getCurrency());
+        put(params, "createdAt", event.getCreatedAt());
+        return params;
+    }
+
+    static Map<String, Object> loan(LoanEvent event) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        put(params, "loanId", event.getLoanId());
+        put(params, "eventType", event.getEventType());
+        put(params, "amount", event.getAmount());
+        put(params, "paymentAmount", event.getPaymentAmount());
+        put(params, "balance", event.getBalance());
+        put(params, "dueDate", event.getDueDate());
+        put(params, "status", event.getStatus());
+        return params;
+    }
+
+    // The stored JSON form, shared by notifications and campaigns
+    static String write(ObjectMapper objectMapper, Map<String, Object> params) {
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Template params are not serializable", e);
+        }
+    }
+
+    static Map<String, Object> read(ObjectMapper objectMapper, String json) throws JsonProcessingException {
+        return objectMapper.readValue(json, TYPE);
+    }
+
+    private static void put(Map<String, Object> params, String name, Object value) {
+        if (value instanceof BigDecimal decimal) {
+            params.put(name, decimal.toPlainString());
+        } else if (value != null) {
+            params.put(name, value.toString());
+        }
+    }
+}
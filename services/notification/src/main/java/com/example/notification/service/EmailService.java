@@ -1,71 +1,351 @@
 package com.example.notification.service;
 
 import com.example.notification.model.Notification;
+import com.example.notification.repository.CampaignRepository;
 import com.example.notification.repository.NotificationRepository;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+
+    // content is the body to send. When it was rendered from a template, only the template and its
+    // variables are stored. eventKeys identify the source events for dedupe; a digest carries one
+    // per coalesced event. priority picks the delivery lane and defaults to NORMAL. A campaign
+    // email stores only its recipient's variables and refers to the campaign for the rest.
+    public record EmailRequest(String to, String subject, String content, EmailTemplate template,
+                               Map<String, Object> params, Long userId, List<String> eventKeys,
+                               Notification.NotificationPriority priority, Long campaignId) {
+
+        public EmailRequest(String to, String subject, String content, Long userId) {
+            this(to, subject, content, null, null, userId, List.of(), Notification.NotificationPriority.NORMAL, null);
+        }
+
+        public EmailRequest(String to, String subject, String content, EmailTemplate template,
+                            Map<String, Object> params, Long userId) {
+            this(to, subject, content, template, params, userId, List.of(), Notification.NotificationPriority.NORMAL, null);
+        }
+
+        public EmailRequest withEventKey(String key) {
+            return key == null ? this : withEventKeys(List.of(key));
+        }
+
+        public EmailRequest withEventKeys(List<String> keys) {
+            return new EmailRequest(to, subject, content, template, params, userId, keys, priority, campaignId);
+        }
+
+        public EmailRequest withPriority(Notification.NotificationPriority priority) {
+            return new EmailRequest(to, subject, content, template, params, userId, eventKeys, priority, campaignId);
+        }
+
+        public EmailRequest withCampaign(Long campaignId) {
+            return new EmailRequest(to, subject, content, template, params, userId, eventKeys, priority, campaignId);
+        }
+    }
+
     private final NotificationRepository notificationRepository;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailDeliveryQueue emailDeliveryQueue;
+    private final NotificationCounterService notificationCounterService;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final ObjectMapper objectMapper;
+    private final CampaignRepository campaignRepository;
+    private final Map<Long, Map<String, Object>> campaignParams = new ConcurrentHashMap<>();
 
-    @Transactional
-    public void sendEmail(String to, String subject, String content) {
-        sendEmail(to, subject, content, null);
+    private static final Duration DEFERRED_CLAIM = Duration.ofMinutes(5);
+
+    @Value("${application.config.email.deferred-batch-size:500}")
+    private int deferredBatchSize;
+
+    // Longer than any message waits in a delivery lane, or a queued one would be sent twice
+    @Value("${application.config.email.stranded-after-ms:900000}")
+    private long strandedAfterMs;
+
+    public Notification sendEmail(String to, String subject, String content) {
+        return sendEmail(to, subject, content, null);
     }
 
-    @Transactional
-    public void sendEmail(String to, String subject, String content, Long userId) {
-        Notification notification = Notification.builder()
-            .email(to)
-            .subject(subject)
-            .message(content)
-            .sentAt(LocalDateTime.now())
-            .status(Notification.NotificationStatus.PENDING)
-            .userId(userId)
-            .build();
+    // Records the notification as PENDING and hands delivery to the SMTP workers;
+    // the final status is written by NotificationStatusWriter
+    public Notification sendEmail(String to, String subject, String content, Long userId) {
+        Notification notification = notificationRepository.save(toNotification(new EmailRequest(to, subject, content, userId)));
+        notificationCounterService.recordCreated(1);
+        if (!enqueue(notification, content)) {
+            defer(List.of(notification.getId()));
+        }
+        return notification;
+    }
+
+    // Persists the whole batch, together with its dedupe keys, in one transaction with JDBC batching.
+    // Returns the saved notifications in request order, with null for a request rejected as a bad row
+    // or for events another consumer already recorded. Database outages are thrown, so the caller's
+    // poll is redelivered instead of committed without its notifications.
+    public List<Notification> sendEmails(List<EmailRequest> requests) {
+        List<Notification> notifications = requests.stream().map(this::toNotification).toList();
+        List<String> keys = requests.stream().flatMap(request -> request.eventKeys().stream()).toList();
 
+        List<Notification> saved;
         try {
-            // Save notification first
-            notification = notificationRepository.save(notification);
-            
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
-            helper.setText(content, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setFrom("noreply@bankapp.com");
-
-            mailSender.send(mimeMessage);
-
-            notification.setStatus(Notification.NotificationStatus.SENT);
-            log.info("Email sent to: {}, with subject: {}", to, subject);
-        } catch (MessagingException e) {
-            notification.setStatus(Notification.NotificationStatus.FAILED);
-            log.error("Failed to send email to: {}, error: {}", to, e.getMessage(), e);
+            saved = transactionTemplate.execute(status -> {
+                List<Notification> result = notificationRepository.saveAll(notifications);
+                if (!keys.isEmpty()) {
+                    // Ids come from the pooled sequence at persist time, before the insert is flushed
+                    Map<String, Long> notificationsByKey = new LinkedHashMap<>();
+                    for (int i = 0; i < result.size(); i++) {
+                        Long id = result.get(i).getId();
+                        requests.get(i).eventKeys().forEach(key -> notificationsByKey.put(key, id));
+                    }
+                    idempotencyService.saveKeys(notificationsByKey);
+                }
+                return result;
+            });
+            idempotencyService.remember(keys);
+        } catch (TransientDataAccessException | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            // Row by row would fail the same way
+            throw e;
         } catch (Exception e) {
-            notification.setStatus(Notification.NotificationStatus.FAILED);
-            log.error("Unexpected error sending email to: {}, error: {}", to, e.getMessage(), e);
-        } finally {
-            // Ensure notification is saved with final status
+            // Fall back to row-by-row so one bad or duplicate record does not drop the batch
+            log.warn("Batch insert of {} notifications failed, retrying individually: {}", notifications.size(), e.getMessage());
+            saved = new ArrayList<>(notifications.size());
+            for (int i = 0; i < notifications.size(); i++) {
+                saved.add(saveSingle(notifications.get(i), requests.get(i).eventKeys()));
+            }
+        }
+
+        int stored = 0;
+        List<Long> deferred = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            if (saved.get(i) != null) {
+                stored++;
+                if (!enqueue(saved.get(i), requests.get(i).content())) {
+                    deferred.add(saved.get(i).getId());
+                }
+            }
+        }
+        notificationCounterService.recordCreated(stored);
+        defer(deferred);
+        return saved;
+    }
+
+    // Moves deferred BULK notifications back into their lane as it frees up, oldest first. Also picks
+    // up rows deferred before a restart or by another instance, and PENDING rows that were queued in
+    // memory by an instance that died before sending them.
+    @Scheduled(fixedDelayString = "${application.config.email.deferred-sweep-interval-ms:1000}")
+    public void requeueDeferred() {
+        int capacity = Math.min(emailDeliveryQueue.remainingCapacity(Notification.NotificationPriority.BULK), deferredBatchSize);
+        if (capacity == 0) {
+            return;
+        }
+        // Claimed rows get a deferred_at in the future, which hides them from other sweeps without
+        // giving up the deferral: if this instance dies before queueing them, the claim expires
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> claimed = transactionTemplate.execute(status -> {
+            List<Notification> rows = new ArrayList<>(notificationRepository.lockDeferred(now, capacity));
+            if (rows.size() < capacity) {
+                rows.addAll(notificationRepository.lockStranded(now.minus(strandedAfterMs, ChronoUnit.MILLIS),
+                    capacity - rows.size()));
+            }
+            if (!rows.isEmpty()) {
+                notificationRepository.setDeferredAt(rows.stream().map(Notification::getId).toList(), now.plus(DEFERRED_CLAIM));
+            }
+            return rows;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+
+        List<Long> queued = new ArrayList<>();
+        List<Long> deferred = new ArrayList<>();
+        List<Long> unrenderable = new ArrayList<>();
+        for (Notification notification : claimed) {
+            String body;
             try {
-                notificationRepository.save(notification);
+                body = renderBody(notification);
             } catch (Exception e) {
-                log.error("Failed to save notification to database", e);
-                throw e; // Re-throw if we can't save to DB
+                log.error("Cannot render deferred notification {}: {}", notification.getId(), e.getMessage());
+                unrenderable.add(notification.getId());
+                continue;
+            }
+            if (enqueue(notification, body)) {
+                queued.add(notification.getId());
+            } else {
+                deferred.add(notification.getId());
             }
         }
+        if (!queued.isEmpty()) {
+            notificationRepository.setDeferredAt(queued, null);
+        }
+        defer(deferred);
+        if (!unrenderable.isEmpty()) {
+            notificationRepository.setDeferredAt(unrenderable, null);
+            int failed = notificationRepository.transitionStatus(unrenderable,
+                Notification.NotificationStatus.PENDING, Notification.NotificationStatus.FAILED);
+            notificationCounterService.recordTransition(Notification.NotificationStatus.PENDING,
+                Notification.NotificationStatus.FAILED, failed);
+        }
+        log.debug("Requeued {} deferred notifications", queued.size());
+    }
+
+    // The body as it was emailed, re-rendered from the stored template variables when there are any
+    public String renderBody(Notification notification) {
+        if (notification.getTemplateId() == null) {
+            return notification.getMessage();
+        }
+        EmailTemplate template = EmailTemplate.valueOf(notification.getTemplateId());
+        if (!Objects.equals(notification.getTemplateVersion(), template.getVersion())) {
+            log.warn("Notification {} was written for {} v{}, rendering with v{}", notification.getId(),
+                template, notification.getTemplateVersion(), template.getVersion());
+        }
+        try {
+            Map<String, Object> params = EmailParams.read(objectMapper, notification.getTemplateParams());
+            if (notification.getCampaignId() != null) {
+                Map<String, Object> variables = new HashMap<>(campaignParams(notification.getCampaignId()));
+                variables.putAll(params);
+                params = variables;
+            }
+            return emailTemplateRenderer.render(template, params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable template params for notification " + notification.getId(), e);
+        }
+    }
+
+    // Puts a delivered or failed notification back through delivery, rendering its body again.
+    // A PENDING notification is already on its way and is left alone.
+    public Optional<Notification> resend(Long id) {
+        return notificationRepository.findById(id).map(notification -> {
+            Notification.NotificationStatus previous = notification.getStatus();
+            if (previous != Notification.NotificationStatus.PENDING
+                    && notificationRepository.transitionStatus(List.of(id), previous, Notification.NotificationStatus.PENDING) > 0) {
+                notificationCounterService.recordTransition(previous, Notification.NotificationStatus.PENDING, 1);
+                notification.setStatus(Notification.NotificationStatus.PENDING);
+                defer(enqueue(notification, renderBody(notification)) ? List.of() : List.of(id));
+            }
+            return notification;
+        });
+    }
+
+    // Sends FAILED notifications among the given ones again on the given lane; others are left
+    // alone. Returns how many went back to delivery.
+    public int resendFailed(Collection<Long> ids, Notification.NotificationPriority priority) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int resent = 0;
+        List<Long> deferred = new ArrayList<>();
+        for (Notification notification : notificationRepository.findAllById(ids)) {
+            if (notification.getStatus() != Notification.NotificationStatus.FAILED
+                    || notificationRepository.transitionStatus(List.of(notification.getId()),
+                        Notification.NotificationStatus.FAILED, Notification.NotificationStatus.PENDING) == 0) {
+                continue;
+            }
+            notificationCounterService.recordTransition(Notification.NotificationStatus.FAILED,
+                Notification.NotificationStatus.PENDING, 1);
+            resent++;
+            // Only the queued task changes lane; a deferred row is requeued on its stored lane
+            notification.setPriority(priority);
+            if (!enqueue(notification, renderBody(notification))) {
+                deferred.add(notification.getId());
+            }
+        }
+        defer(deferred);
+        return resent;
+    }
+
+    private Notification saveSingle(Notification notification, List<String> eventKeys) {
+        try {
+            notification.setId(null);
+            Notification saved = transactionTemplate.execute(status -> {
+                Notification result = notificationRepository.save(notification);
+                if (!eventKeys.isEmpty()) {
+                    Map<String, Long> notificationsByKey = new LinkedHashMap<>();
+                    eventKeys.forEach(key -> notificationsByKey.put(key, result.getId()));
+                    idempotencyService.saveKeys(notificationsByKey);
+                }
+                return result;
+            });
+            idempotencyService.remember(eventKeys);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Skipping notification for: {}, events {} were already processed", notification.getEmail(), eventKeys);
+            return null;
+        }
+    }
+
+    private Notification toNotification(EmailRequest request) {
+        return Notification.builder()
+            .email(request.to())
+            .subject(request.subject())
+            .message(request.template() == null ? request.content() : null)
+            .templateId(request.template() != null ? request.template().name() : null)
+            .templateVersion(request.template() != null ? request.template().getVersion() : null)
+            .templateParams(request.template() != null ? EmailParams.write(objectMapper, request.params()) : null)
+            .sentAt(LocalDateTime.now())
+            .status(Notification.NotificationStatus.PENDING)
+            .userId(request.userId())
+            .priority(request.priority())
+            .campaignId(request.campaignId())
+            .build();
+    }
+
+    // A campaign's params are fixed when it is created, so they are read once per campaign
+    private Map<String, Object> campaignParams(Long campaignId) {
+        return campaignParams.computeIfAbsent(campaignId, id -> campaignRepository.findById(id)
+            .map(campaign -> {
+                try {
+                    return EmailParams.read(objectMapper, campaign.getTemplateParams());
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Unreadable template params for campaign " + id, e);
+                }
+            })
+            .orElseThrow(() -> new IllegalStateException("Campaign " + id + " no longer exists")));
+    }
+
+    // False when the notification has to be deferred: its lane is full or the caller was interrupted
+    private boolean enqueue(Notification notification, String body) {
+        Notification.NotificationPriority priority = notification.getPriority() != null
+            ? notification.getPriority() : Notification.NotificationPriority.NORMAL;
+        try {
+            return emailDeliveryQueue.enqueue(new EmailDeliveryQueue.EmailTask(
+                notification.getId(), notification.getEmail(), notification.getSubject(), body, priority));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queueing email to: {}, notification {} deferred",
+                notification.getEmail(), notification.getId());
+            return false;
+        }
+    }
+
+    private void defer(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            notificationRepository.setDeferredAt(ids, LocalDateTime.now());
+            log.info("Email lane full or interrupted, deferred {} notifications", ids.size());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.example.notification.service;
+
+// Email bodies under templates/email/; localized variants are <name>_<lang>[_<COUNTRY>].html.
+// Bump the version whenever the variables a template expects change, since notifications store
+// their variables and are rendered again later.
+public enum EmailTemplate {
+    TRANSACTION("transaction", 2),
+    TRANSACTION_DIGEST("transaction-digest", 2),
+    ACCOUNT("account", 2),
+    LOAN("loan", 2),
+    CAMPAIGN("campaign", 1);
+
+    private final String templateName;
+    private final int version;
+
+    EmailTemplate(String templateName, int version) {
+        this.templateName = templateName;
+        this.version = version;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.notification.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresolver.FileTemplateResolver;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Renders email bodies with a dedicated Thymeleaf engine. Templates are parsed once and kept in the
+// engine cache, expressions are compiled by SpEL, and output goes into a per-thread buffer that is
+// reused between messages. When an external template directory is configured it takes precedence
+// over the classpath and is re-read every reload interval.
+@Slf4j
+public class EmailTemplateRenderer {
+
+    private static final String CLASSPATH_PREFIX = "templates/email/";
+    private static final String SUFFIX = ".html";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private record TemplateKey(EmailTemplate template, Locale locale) {
+    }
+
+    private final SpringTemplateEngine engine;
+    private final Path externalLocation;
+    private final Locale defaultLocale;
+    private final Map<TemplateKey, String> resolvedNames = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(4096));
+
+    public EmailTemplateRenderer(String externalLocation, long reloadIntervalMs, Locale defaultLocale) {
+        this.externalLocation = StringUtils.hasText(externalLocation) ? Path.of(externalLocation) : null;
+        this.defaultLocale = defaultLocale;
+        this.engine = new SpringTemplateEngine();
+        engine.setEnableSpringELCompiler(true);
+
+        if (this.externalLocation != null) {
+            FileTemplateResolver fileResolver = new FileTemplateResolver();
+            fileResolver.setPrefix(this.externalLocation + "/");
+            fileResolver.setSuffix(SUFFIX);
+            fileResolver.setTemplateMode(TemplateMode.HTML);
+            fileResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            fileResolver.setCheckExistence(true);
+            fileResolver.setCacheable(reloadIntervalMs > 0);
+            if (reloadIntervalMs > 0) {
+                fileResolver.setCacheTTLMs(reloadIntervalMs);
+            }
+            fileResolver.setOrder(1);
+            engine.addTemplateResolver(fileResolver);
+        }
+
+        ClassLoaderTemplateResolver classpathResolver = new ClassLoaderTemplateResolver();
+        classpathResolver.setPrefix(CLASSPATH_PREFIX);
+        classpathResolver.setSuffix(SUFFIX);
+        classpathResolver.setTemplateMode(TemplateMode.HTML);
+        classpathResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        classpathResolver.setCacheable(true);
+        classpathResolver.setOrder(2);
+        engine.addTemplateResolver(classpathResolver);
+    }
+
+    public String render(EmailTemplate template, Map<String, Object> variables) {
+        return render(template, defaultLocale, variables);
+    }
+
+    public String render(EmailTemplate template, Locale locale, Map<String, Object> variables) {
+        Locale effectiveLocale = locale != null ? locale : defaultLocale;
+        StringWriter writer = buffers.get();
+        writer.getBuffer().setLength(0);
+
+        engine.process(resolveName(template, effectiveLocale), new Context(effectiveLocale, variables), writer);
+        String html = writer.toString();
+
+        // Don't pin an unusually large buffer to the thread
+        if (writer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return html;
+    }
+
+    // Most specific localized variant first, falling back to the unlocalized template
+    private String resolveName(EmailTemplate template, Locale locale) {
+        if (externalLocation != null) {
+            // External templates may appear at runtime, so lookups are not memoized
+            return findName(template, locale);
+        }
+        return resolvedNames.computeIfAbsent(new TemplateKey(template, locale), key -> findName(template, locale));
+    }
+
+    private String findName(EmailTemplate template, Locale locale) {
+        String base = template.getTemplateName();
+        List<String> candidates = StringUtils.hasText(locale.getCountry())
+            ? List.of(base + "_" + locale.getLanguage() + "_" + locale.getCountry(), base + "_" + locale.getLanguage())
+            : List.of(base + "_" + locale.getLanguage());
+        for (String candidate : candidates) {
+            if (exists(candidate)) {
+                return candidate;
+            }
+        }
+        return base;
+    }
+
+    private boolean exists(String name) {
+        if (externalLocation != null && Files.exists(externalLocation.resolve(name + SUFFIX))) {
+            return true;
+        }
+        return getClass().getClassLoader().getResource(CLASSPATH_PREFIX + name + SUFFIX) != null;
+    }
+}
@@ -1,47 +1,171 @@
 package com.example.notification.service;
 
 import com.example.notification.dto.KafkaEventDto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// Fans events out to SSE clients without ever writing to a socket on the caller's thread. Each
+// subscriber has a bounded queue drained by its own virtual thread; when a client falls behind, the
+// oldest queued events are dropped, and a client that keeps dropping is disconnected.
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class EventBroadcasterService {
 
-    private final List<SseEmitter> sseEmitters = new CopyOnWriteArrayList<>();
+    // Queued in place of an event to send a heartbeat through the same ordered drain
+    private static final KafkaEventDto HEARTBEAT = new KafkaEventDto();
 
-    public void addEmitter(SseEmitter emitter) {
-        sseEmitters.add(emitter);
-        emitter.onCompletion(() -> sseEmitters.remove(emitter));
-        emitter.onTimeout(() -> sseEmitters.remove(emitter));
-        emitter.onError((ex) -> sseEmitters.remove(emitter));
-    }
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final EventTrackerService eventTrackerService;
 
-    public void broadcastEvent(KafkaEventDto event) {
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        sseEmitters.forEach(emitter -> {
+    @Value("${application.config.sse.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${application.config.sse.max-dropped-events:1000}")
+    private int maxDroppedEvents;
+
+    // Registers the emitter, then replays what it missed since lastEventId from the tracker's buffer.
+    // Live events arriving meanwhile are queued and deduplicated against the replay.
+    public void addEmitter(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(queueCapacity));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError((ex) -> subscribers.remove(subscriber));
+
+        subscriber.draining.set(true);
+        subscribers.add(subscriber);
+        senders.execute(() -> {
             try {
                 emitter.send(SseEmitter.event()
-                        .name("kafka-event")
-                        .data(event));
+                        .name("connected")
+                        .data("Connected to notification event stream"));
+                if (lastEventId != null) {
+                    for (KafkaEventDto event : eventTrackerService.getEventsAfter(lastEventId)) {
+                        send(subscriber, event);
+                        subscriber.replayed.add(event.getSequence());
+                    }
+                }
             } catch (IOException e) {
-                log.debug("SSE emitter error, removing", e);
-                deadEmitters.add(emitter);
+                log.debug("SSE emitter error during replay, removing", e);
+                disconnect(subscriber, e);
+                return;
             }
+            drain(subscriber);
         });
-        sseEmitters.removeAll(deadEmitters);
+    }
+
+    public void broadcastEvent(KafkaEventDto event) {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, event);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${application.config.sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            // A busy queue already keeps the connection alive
+            if (subscriber.queue.isEmpty()) {
+                enqueue(subscriber, HEARTBEAT);
+            }
+        }
     }
 
     public int getActiveConnections() {
-        return sseEmitters.size();
+        return subscribers.size();
     }
-}
 
+    private void enqueue(Subscriber subscriber, KafkaEventDto event) {
+        while (!subscriber.queue.offer(event)) {
+            // Slow client: drop its oldest event rather than block the caller
+            if (subscriber.queue.poll() != null && subscriber.dropped.incrementAndGet() > maxDroppedEvents) {
+                log.warn("SSE client dropped more than {} events, disconnecting", maxDroppedEvents);
+                disconnect(subscriber, null);
+                return;
+            }
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            KafkaEventDto event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    send(subscriber, event);
+                } catch (IOException e) {
+                    log.debug("SSE emitter error, removing", e);
+                    disconnect(subscriber, e);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // Re-check so an event enqueued between the last poll and the flag reset is not stranded
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void send(Subscriber subscriber, KafkaEventDto event) throws IOException {
+        if (event == HEARTBEAT) {
+            subscriber.emitter.send(SseEmitter.event().name("heartbeat").data(System.currentTimeMillis()));
+            return;
+        }
+        if (event.getSequence() != null && subscriber.replayed.contains(event.getSequence())) {
+            return;
+        }
+        SseEmitter.SseEventBuilder message = SseEmitter.event().name("kafka-event").data(event);
+        if (event.getSequence() != null) {
+            // Unsequenced events cannot be resumed from, so they leave the client's Last-Event-ID alone
+            message.id(String.valueOf(event.getSequence()));
+        }
+        subscriber.emitter.send(message);
+        subscriber.dropped.set(0);
+    }
+
+    private void disconnect(Subscriber subscriber, Throwable cause) {
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        if (cause != null) {
+            subscriber.emitter.completeWithError(cause);
+        } else {
+            subscriber.emitter.complete();
+        }
+    }
 
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
 
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<KafkaEventDto> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        // Sequences already sent during Last-Event-ID replay; bounded by the tracker's buffer
+        private final Set<Long> replayed = new HashSet<>();
+        private final AtomicInteger dropped = new AtomicInteger();
 
+        private Subscriber(SseEmitter emitter, BlockingQueue<KafkaEventDto> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
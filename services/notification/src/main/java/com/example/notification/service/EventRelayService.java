@@ -0,0 +1,120 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.KafkaEventDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+// Routes tracked events either straight to local SSE subscribers (single instance) or through the
+// dashboard relay topic, in which case every instance tracks and broadcasts the event on receipt.
+// With the relay on, the relay listener is the tracker's only writer and topic offsets its only
+// sequence source; an event that cannot be relayed is shown to local subscribers but not buffered.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventRelayService implements ConsumerSeekAware {
+
+    public static final String RELAY_LISTENER_ID = "dashboard-relay";
+
+    private static final String HEADER_EVENT_TYPE = "x-event-type";
+    private static final String HEADER_SOURCE_TOPIC = "x-source-topic";
+    private static final String HEADER_PROCESSED = "x-processed";
+
+    private final KafkaTemplate<String, byte[]> relayKafkaTemplate;
+    private final EventTrackerService eventTrackerService;
+    private final EventBroadcasterService eventBroadcasterService;
+
+    @Value("${application.config.events.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    @Value("${application.config.events.relay.topic:notification-dashboard-events}")
+    private String relayTopic;
+
+    // rawEvent is the original record value and is forwarded untouched
+    public void distribute(String eventType, byte[] rawEvent, String topic, boolean processed) {
+        if (!relayEnabled) {
+            trackLocally(eventType, rawEvent, topic, processed);
+            return;
+        }
+
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(relayTopic, rawEvent);
+        record.headers()
+            .add(HEADER_EVENT_TYPE, eventType.getBytes(StandardCharsets.UTF_8))
+            .add(HEADER_SOURCE_TOPIC, topic.getBytes(StandardCharsets.UTF_8))
+            .add(HEADER_PROCESSED, new byte[]{(byte) (processed ? 1 : 0)});
+        try {
+            relayKafkaTemplate.send(record).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.warn("Dashboard relay failed, showing event locally only: {}", ex.getMessage());
+                    showLocally(eventType, rawEvent, topic, processed);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Dashboard relay failed, showing event locally only: {}", e.getMessage());
+            showLocally(eventType, rawEvent, topic, processed);
+        }
+    }
+
+    // Assigned the topic's single partition directly: no consumer group to join or leave behind on
+    // restart, and with no group id the container commits no offsets
+    @KafkaListener(
+        id = RELAY_LISTENER_ID,
+        idIsGroup = false,
+        topicPartitions = @TopicPartition(
+            topic = "${application.config.events.relay.topic:notification-dashboard-events}", partitions = "0"),
+        containerFactory = "relayKafkaListenerContainerFactory",
+        autoStartup = "${application.config.events.relay.enabled:false}"
+    )
+    public void onRelayedEvent(ConsumerRecord<String, byte[]> record) {
+        Headers headers = record.headers();
+        KafkaEventDto event = KafkaEventDto.builder()
+                .eventType(header(headers, HEADER_EVENT_TYPE))
+                .eventData(new String(record.value(), StandardCharsets.UTF_8))
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault()))
+                .topic(header(headers, HEADER_SOURCE_TOPIC))
+                .processed(isProcessed(headers))
+                .build();
+        eventBroadcasterService.broadcastEvent(eventTrackerService.trackRelayed(event, record.offset()));
+    }
+
+    // Start each new instance a buffer's worth behind the end so its tracker is warm for replay
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.keySet().forEach(partition ->
+            callback.seekRelative(partition.topic(), partition.partition(), -eventTrackerService.getBufferCapacity(), false));
+    }
+
+    private void trackLocally(String eventType, byte[] rawEvent, String topic, boolean processed) {
+        KafkaEventDto event = eventTrackerService.trackEvent(eventType, rawEvent, topic, processed);
+        eventBroadcasterService.broadcastEvent(event);
+    }
+
+    private void showLocally(String eventType, byte[] rawEvent, String topic, boolean processed) {
+        eventBroadcasterService.broadcastEvent(eventTrackerService.trackUnbuffered(eventType, rawEvent, topic, processed));
+    }
+
+    private static String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static boolean isProcessed(Headers headers) {
+        Header header = headers.lastHeader(HEADER_PROCESSED);
+        return header != null && header.value().length > 0 && header.value()[0] == 1;
+    }
+}
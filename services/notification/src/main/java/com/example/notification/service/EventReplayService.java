@@ -0,0 +1,285 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.ReplayRequestDto;
+import com.example.notification.dto.ReplayStatusDto;
+import com.example.notification.event.AccountEvent;
+import com.example.notification.event.EventEnvelope;
+import com.example.notification.event.LoanEvent;
+import com.example.notification.event.TransactionEvent;
+import com.example.notification.model.Notification;
+import com.example.notification.util.TokenBucket;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Re-reads event topics from a point in time, e.g. after an SMTP outage left notifications FAILED.
+// A dedicated consumer with manually assigned partitions seeks to offsetsForTimes and reads up to the
+// end offsets seen at the start, without joining or committing for the listeners' group. Records
+// go through KafkaConsumerService's replay path on the BULK lane, paced by a token bucket and held
+// back while the BULK queue is full, so live HIGH and NORMAL traffic is never queued behind them.
+// One replay runs at a time.
+@Slf4j
+@Service
+public class EventReplayService {
+
+    public enum ReplayState {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private static final String REPLAY_GROUP = "notification-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final List<String> DEFAULT_TOPICS = List.of("transaction-events", "account-events");
+
+    private record Replayer<T>(ConsumerFactory<String, EventEnvelope<T>> consumerFactory,
+                               Function<List<EventEnvelope<T>>, KafkaConsumerService.BatchOutcome> processor) {
+    }
+
+    private final EmailDeliveryQueue emailDeliveryQueue;
+    private final Map<String, Replayer<?>> replayers = new LinkedHashMap<>();
+    private final double defaultRatePerSecond;
+    private final double maxRatePerSecond;
+    private final int batchSize;
+    private final long laneWaitMs;
+
+    private volatile ReplayJob current;
+
+    public EventReplayService(KafkaConsumerService kafkaConsumerService,
+                              EmailDeliveryQueue emailDeliveryQueue,
+                              ConsumerFactory<String, EventEnvelope<TransactionEvent>> transactionConsumerFactory,
+                              ConsumerFactory<String, EventEnvelope<AccountEvent>> accountConsumerFactory,
+                              ConsumerFactory<String, EventEnvelope<LoanEvent>> loanConsumerFactory,
+                              @Value("${application.config.replay.rate-per-second:200}") double defaultRatePerSecond,
+                              @Value("${application.config.replay.max-rate-per-second:1000}") double maxRatePerSecond,
+                              @Value("${application.config.replay.batch-size:100}") int batchSize,
+                              @Value("${application.config.replay.lane-wait-ms:200}") long laneWaitMs) {
+        this.emailDeliveryQueue = emailDeliveryQueue;
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.batchSize = batchSize;
+        this.laneWaitMs = laneWaitMs;
+        replayers.put("transaction-events", new Replayer<>(transactionConsumerFactory, kafkaConsumerService::replayTransactionEvents));
+        replayers.put("account-events", new Replayer<>(accountConsumerFactory, kafkaConsumerService::replayAccountEvents));
+        replayers.put("loan-events", new Replayer<>(loanConsumerFactory, kafkaConsumerService::replayLoanEvents));
+    }
+
+    // Throws IllegalArgumentException for an invalid request and IllegalStateException while
+    // another replay is running
+    public synchronized ReplayStatusDto start(ReplayRequestDto request) {
+        List<String> topics = request.getTopics() == null || request.getTopics().isEmpty()
+            ? DEFAULT_TOPICS : List.copyOf(request.getTopics());
+        List<String> unknown = topics.stream().filter(topic -> !replayers.containsKey(topic)).toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Cannot replay " + unknown + "; replayable topics are " + replayers.keySet());
+        }
+        if (request.getFrom() == null || request.getFrom().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("from must be in the past");
+        }
+        if (request.getTo() != null && !request.getTo().isAfter(request.getFrom())) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        double rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond;
+        if (rate <= 0 || rate > maxRatePerSecond) {
+            throw new IllegalArgumentException("ratePerSecond must be between 0 and " + maxRatePerSecond);
+        }
+        if (current != null && current.state == ReplayState.RUNNING) {
+            throw new IllegalStateException("Replay " + current.id + " is still running");
+        }
+
+        ReplayJob job = new ReplayJob(topics, request.getFrom(), request.getTo(), rate);
+        current = job;
+        job.thread = Thread.ofPlatform().name("event-replay").daemon().start(() -> run(job));
+        log.info("Started replay {} of {} from {} to {} at {} records/s", job.id, topics, job.from,
+            job.to != null ? job.to : "current end", rate);
+        return job.toDto();
+    }
+
+    public Optional<ReplayStatusDto> getStatus() {
+        return Optional.ofNullable(current).map(ReplayJob::toDto);
+    }
+
+    public synchronized Optional<ReplayStatusDto> cancel() {
+        ReplayJob job = current;
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (job.state == ReplayState.RUNNING) {
+            job.cancelled = true;
+            job.thread.interrupt();
+        }
+        return Optional.of(job.toDto());
+    }
+
+    @PreDestroy
+    public void stop() {
+        cancel();
+    }
+
+    private void run(ReplayJob job) {
+        try {
+            for (String topic : job.topics) {
+                if (job.cancelled) {
+                    break;
+                }
+                job.currentTopic = topic;
+                replayTopic(job, topic, replayers.get(topic));
+            }
+            job.finish(job.cancelled ? ReplayState.CANCELLED : ReplayState.COMPLETED, null);
+        } catch (Exception e) {
+            if (job.cancelled) {
+                job.finish(ReplayState.CANCELLED, null);
+            } else {
+                log.error("Replay {} failed", job.id, e);
+                job.finish(ReplayState.FAILED, e.getMessage());
+            }
+        }
+        log.info("Replay {} {}: read {}, created {}, resent {}, skipped {}", job.id, job.state,
+            job.read.get(), job.created.get(), job.resent.get(), job.skipped.get());
+    }
+
+    private <T> void replayTopic(ReplayJob job, String topic, Replayer<T> replayer) throws InterruptedException {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+
+        try (Consumer<String, EventEnvelope<T>> consumer =
+                 replayer.consumerFactory().createConsumer(REPLAY_GROUP, "replay-", job.id, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+            long fromMillis = job.from.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            Long toMillis = job.to != null ? job.to.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+
+            Map<TopicPartition, OffsetAndTimestamp> start = consumer.offsetsForTimes(
+                partitions.stream().collect(Collectors.toMap(Function.identity(), partition -> fromMillis)));
+            // Stop at what existed when the replay began; anything newer is the live listeners' job
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> remaining = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                OffsetAndTimestamp offset = start.get(partition);
+                if (offset != null && offset.offset() < end.get(partition)) {
+                    remaining.put(partition, end.get(partition));
+                }
+            }
+            consumer.assign(remaining.keySet());
+            remaining.keySet().forEach(partition -> consumer.seek(partition, start.get(partition).offset()));
+
+            TokenBucket limiter = new TokenBucket(job.ratePerSecond, Math.max(1, (int) Math.min(job.ratePerSecond, batchSize)));
+            while (!remaining.isEmpty() && !job.cancelled) {
+                emailDeliveryQueue.awaitCapacity(Notification.NotificationPriority.BULK, batchSize, laneWaitMs);
+                ConsumerRecords<String, EventEnvelope<T>> records = consumer.poll(POLL_TIMEOUT);
+
+                List<EventEnvelope<T>> batch = new ArrayList<>(records.count());
+                List<TopicPartition> done = new ArrayList<>();
+                for (TopicPartition partition : records.partitions()) {
+                    Long endOffset = remaining.get(partition);
+                    if (endOffset == null) {
+                        continue;
+                    }
+                    for (ConsumerRecord<String, EventEnvelope<T>> record : records.records(partition)) {
+                        if (record.offset() >= endOffset || (toMillis != null && record.timestamp() > toMillis)) {
+                            done.add(partition);
+                            break;
+                        }
+                        batch.add(record.value());
+                    }
+                }
+                // A partition can reach its end offset without handing out another record
+                for (TopicPartition partition : remaining.keySet()) {
+                    if (!done.contains(partition) && consumer.position(partition) >= remaining.get(partition)) {
+                        done.add(partition);
+                    }
+                }
+                done.forEach(remaining::remove);
+                consumer.pause(done);
+
+                if (!batch.isEmpty()) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        limiter.acquire();
+                    }
+                    job.record(batch.size(), replayer.processor().apply(batch));
+                }
+            }
+        }
+    }
+
+    private static final class ReplayJob {
+        private final String id = UUID.randomUUID().toString();
+        private final List<String> topics;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final double ratePerSecond;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong resent = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile Thread thread;
+        private volatile String currentTopic;
+        private volatile ReplayState state = ReplayState.RUNNING;
+        private volatile boolean cancelled;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private ReplayJob(List<String> topics, LocalDateTime from, LocalDateTime to, double ratePerSecond) {
+            this.topics = topics;
+            this.from = from;
+            this.to = to;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        private void record(int records, KafkaConsumerService.BatchOutcome outcome) {
+            read.addAndGet(records);
+            created.addAndGet(outcome.created());
+            resent.addAndGet(outcome.resent());
+            skipped.addAndGet(outcome.skipped());
+        }
+
+        private void finish(ReplayState finalState, String failure) {
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+
+        private ReplayStatusDto toDto() {
+            return ReplayStatusDto.builder()
+                .id(id)
+                .state(state.name())
+                .topics(topics)
+                .currentTopic(currentTopic)
+                .from(from)
+                .to(to)
+                .ratePerSecond(ratePerSecond)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .read(read.get())
+                .created(created.get())
+                .resent(resent.get())
+                .skipped(skipped.get())
+                .error(error)
+                .build();
+        }
+    }
+}
@@ -1,52 +1,74 @@
 package com.example.notification.service;
 
 import com.example.notification.dto.KafkaEventDto;
+import com.example.notification.util.EventRingBuffer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
 public class EventTrackerService {
 
-    private static final int MAX_EVENTS = 100;
-    private final ConcurrentLinkedQueue<KafkaEventDto> events = new ConcurrentLinkedQueue<>();
-    private LocalDateTime lastEventTime;
+    private final EventRingBuffer<KafkaEventDto> events;
+    private final Map<String, LongAdder> topicCounts = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastEventTime;
 
-    public void trackEvent(String eventType, String eventData, String topic, boolean processed) {
-        KafkaEventDto event = KafkaEventDto.builder()
-                .eventType(eventType)
-                .eventData(eventData)
-                .timestamp(LocalDateTime.now())
-                .topic(topic)
-                .processed(processed)
-                .build();
+    public EventTrackerService(@Value("${application.config.events.buffer-capacity:128}") int bufferCapacity) {
+        this.events = new EventRingBuffer<>(bufferCapacity);
+    }
 
-        events.offer(event);
-        lastEventTime = event.getTimestamp();
+    // Returns the stored event, carrying its sequence number. Only used with the relay off; with it
+    // on, the buffer is written by trackRelayed alone.
+    public KafkaEventDto trackEvent(String eventType, byte[] rawEvent, String topic, boolean processed) {
+        LocalDateTime now = LocalDateTime.now();
+        String eventData = new String(rawEvent, StandardCharsets.UTF_8);
+        KafkaEventDto event = events.add(sequence -> toEvent(sequence, eventType, eventData, now, topic, processed));
+        count(topic, now);
+        log.debug("Tracked Kafka event: {} from topic: {}", eventType, topic);
+        return event;
+    }
 
-        // Keep only the last MAX_EVENTS
-        while (events.size() > MAX_EVENTS) {
-            events.poll();
-        }
+    // Counts an event that could not be relayed without storing it; it carries no sequence, since
+    // sequences are relay offsets and a local one could collide with them
+    public KafkaEventDto trackUnbuffered(String eventType, byte[] rawEvent, String topic, boolean processed) {
+        LocalDateTime now = LocalDateTime.now();
+        count(topic, now);
+        return toEvent(null, eventType, new String(rawEvent, StandardCharsets.UTF_8), now, topic, processed);
+    }
 
-        log.debug("Tracked Kafka event: {} from topic: {}", eventType, topic);
+    // Records an event relayed from the cluster-wide dashboard topic under its topic offset
+    public KafkaEventDto trackRelayed(KafkaEventDto event, long offset) {
+        event.setSequence(offset);
+        events.put(offset, event);
+        count(event.getTopic(), event.getTimestamp());
+        return event;
     }
 
+    public int getBufferCapacity() {
+        return events.capacity();
+    }
+
+    // Newest first, straight from the ring
     public List<KafkaEventDto> getRecentEvents(int limit) {
-        return events.stream()
-                .sorted((e1, e2) -> e2.getTimestamp().compareTo(e1.getTimestamp()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return events.latest(limit);
+    }
+
+    // Oldest first; used to replay events a reconnecting SSE client missed
+    public List<KafkaEventDto> getEventsAfter(long sequence) {
+        return events.after(sequence);
     }
 
     public List<KafkaEventDto> getAllEvents() {
-        return new ArrayList<>(events);
+        return events.latest(events.capacity());
     }
 
     public LocalDateTime getLastEventTime() {
@@ -62,8 +84,31 @@ public class EventTrackerService {
     public int getEventCount() {
         return events.size();
     }
-}
 
+    public long getTotalEventCount() {
+        return events.totalAdded();
+    }
 
+    public Map<String, Long> getTopicCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        topicCounts.forEach((topic, count) -> counts.put(topic, count.sum()));
+        return counts;
+    }
 
+    private void count(String topic, LocalDateTime at) {
+        topicCounts.computeIfAbsent(topic, t -> new LongAdder()).increment();
+        lastEventTime = at;
+    }
 
+    private static KafkaEventDto toEvent(Long sequence, String eventType, String eventData, LocalDateTime timestamp,
+                                         String topic, boolean processed) {
+        return KafkaEventDto.builder()
+                .sequence(sequence)
+                .eventType(eventType)
+                .eventData(eventData)
+                .timestamp(timestamp)
+                .topic(topic)
+                .processed(processed)
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.notification.service;
+
+import com.example.notification.model.ProcessedEvent;
+import com.example.notification.repository.ProcessedEventRepository;
+import com.example.notification.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Dedupe for redelivered events. A Bloom filter answers "never seen" without touching the database;
+// only possible duplicates are confirmed against processed_events, whose primary key is the real
+// guarantee. Keys are inserted in the same transaction as the notifications they produced.
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int WARM_PAGE_SIZE = 10_000;
+
+    private final ProcessedEventRepository processedEventRepository;
+
+    @Value("${application.config.dedupe.expected-keys:1000000}")
+    private long expectedKeys;
+
+    @Value("${application.config.dedupe.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${application.config.dedupe.retention-days:7}")
+    private int retentionDays;
+
+    private volatile BloomFilter filter;
+    // Non-null while a rebuild is loading keys, so keys recorded meanwhile are not lost on swap
+    private volatile BloomFilter rebuilding;
+
+    @PostConstruct
+    public void warm() {
+        rebuild();
+    }
+
+    // Keys among the given ones that were already processed
+    public Set<String> findProcessed(Collection<String> keys) {
+        BloomFilter current = filter;
+        List<String> candidates = keys.stream().filter(current::mightContain).toList();
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        return processedEventRepository.findExistingKeys(candidates);
+    }
+
+    // Notifications produced by the given processed events
+    public List<Long> findNotificationIds(Collection<String> keys) {
+        return keys.isEmpty() ? List.of() : processedEventRepository.findNotificationIds(keys);
+    }
+
+    // Keys mapped to the notification each produced. Must run inside the transaction that inserts
+    // the notifications.
+    public void saveKeys(Map<String, Long> notificationsByKey) {
+        LocalDateTime now = LocalDateTime.now();
+        processedEventRepository.saveAll(notificationsByKey.entrySet().stream()
+            .map(entry -> new ProcessedEvent(entry.getKey(), now, entry.getValue()))
+            .toList());
+    }
+
+    // Called after the transaction commits
+    public void remember(Collection<String> keys) {
+        // Read rebuilding first: it is cleared only after filter has been swapped to the new one
+        BloomFilter next = rebuilding;
+        BloomFilter current = filter;
+        for (String key : keys) {
+            current.put(key);
+            if (next != null) {
+                next.put(key);
+            }
+        }
+    }
+
+    // Drops keys past retention and rebuilds the filter so it stops answering for them
+    @Scheduled(cron = "${application.config.dedupe.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        int removed = processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Removed {} processed event keys older than {} days", removed, retentionDays);
+        rebuild();
+    }
+
+    private void rebuild() {
+        long existing = processedEventRepository.count();
+        BloomFilter fresh = new BloomFilter(Math.max(expectedKeys, existing * 2), falsePositiveRate);
+        rebuilding = fresh;
+        try {
+            String after = "";
+            List<String> page;
+            do {
+                page = processedEventRepository.findKeysAfter(after, Limit.of(WARM_PAGE_SIZE));
+                page.forEach(fresh::put);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == WARM_PAGE_SIZE);
+            filter = fresh;
+        } finally {
+            rebuilding = null;
+        }
+        log.info("Loaded {} processed event keys into dedupe filter", existing);
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.KafkaStatusDto;
+import com.example.notification.dto.ListenerStatusDto;
+import com.example.notification.dto.PartitionLagDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Consumer health for the notification listeners. Group lag per partition comes from the admin
+// client on a schedule and is published as gauges, so consumers can be autoscaled on it; consumption
+// rate and time since the last poll come from the listener containers' own Kafka consumers, and batch
+// processing time is timed around each listener call. The admin calls block for up to the admin timeout,
+// so the refresh runs on its own thread rather than holding up the shared @Scheduled jobs.
+@Slf4j
+@Service
+public class KafkaConsumerMonitor {
+
+    private record LagSnapshot(LocalDateTime updatedAt, long takenAtNanos, List<PartitionLagDto> partitions,
+                               Map<String, Long> positionByTopic, Map<String, Double> consumedPerSecondByTopic) {
+    }
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final String bootstrapServers;
+    private final long timeoutMs;
+    private final long refreshMs;
+
+    private final MultiGauge partitionLag;
+    private final MultiGauge topicLag;
+    private final MultiGauge consumedRate;
+    private final Map<String, Timer> batchTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> recordCounters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-lag-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Admin admin;
+    private volatile LagSnapshot snapshot;
+    private volatile boolean connected;
+
+    public KafkaConsumerMonitor(KafkaListenerEndpointRegistry listenerRegistry,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers,
+                                @Value("${application.config.kafka.admin-timeout-ms:5000}") long timeoutMs,
+                                @Value("${application.config.kafka.lag-refresh-ms:15000}") long refreshMs) {
+        this.listenerRegistry = listenerRegistry;
+        this.meterRegistry = meterRegistry;
+        this.bootstrapServers = bootstrapServers;
+        this.timeoutMs = timeoutMs;
+        this.refreshMs = refreshMs;
+
+        this.partitionLag = MultiGauge.builder("notification.kafka.consumer.lag")
+                .description("Records behind the end of the partition for the consumer group")
+                .register(meterRegistry);
+        this.topicLag = MultiGauge.builder("notification.kafka.consumer.lag.total")
+                .description("Consumer group lag summed over the partitions of a topic")
+                .register(meterRegistry);
+        this.consumedRate = MultiGauge.builder("notification.kafka.consumer.committed.rate")
+                .description("Records per second committed by the consumer group, between lag refreshes")
+                .baseUnit("records/s")
+                .register(meterRegistry);
+    }
+
+    // Called by the listeners around every batch they are handed
+    public void recordBatch(String topic, int records, long elapsedNanos) {
+        batchTimers.computeIfAbsent(topic, key -> Timer.builder("notification.kafka.batch.processing")
+                .description("Time a listener spends processing one poll")
+                .tag("topic", key)
+                .publishPercentiles(0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        recordCounters.computeIfAbsent(topic, key -> Counter.builder("notification.kafka.records")
+                .description("Records handed to the listeners")
+                .tag("topic", key)
+                .register(meterRegistry))
+            .increment(records);
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refreshLag();
+            } catch (RuntimeException e) {
+                // An exception escaping here would cancel every later refresh
+                log.warn("Kafka lag refresh failed: {}", e.getMessage());
+            }
+        }, 0, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void refreshLag() {
+        Map<String, Set<String>> topicsByGroup = new TreeMap<>();
+        for (MessageListenerContainer container : consumerContainers()) {
+            topicsByGroup.computeIfAbsent(container.getGroupId(), group -> new TreeSet<>()).addAll(topics(container));
+        }
+        if (topicsByGroup.isEmpty()) {
+            return;
+        }
+        try {
+            List<PartitionLagDto> partitions = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> entry : topicsByGroup.entrySet()) {
+                partitions.addAll(lag(admin(), entry.getKey(), entry.getValue()));
+            }
+            publish(partitions);
+            connected = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (connected) {
+                log.warn("Kafka lag refresh failed: {}", e.getMessage());
+            }
+            connected = false;
+            closeAdmin();
+        }
+    }
+
+    public KafkaStatusDto getStatus() {
+        LagSnapshot current = snapshot;
+        List<MessageListenerContainer> containers = consumerContainers();
+        boolean fresh = current != null
+                && System.nanoTime() - current.takenAtNanos() < TimeUnit.MILLISECONDS.toNanos(refreshMs * 3);
+
+        KafkaStatusDto.KafkaStatusDtoBuilder status = KafkaStatusDto.builder()
+                .isConnected(connected && fresh && containers.stream().anyMatch(MessageListenerContainer::isRunning))
+                .consumerGroup(containers.stream().map(MessageListenerContainer::getGroupId).distinct().sorted()
+                        .collect(Collectors.joining(",")))
+                .topics(containers.stream().flatMap(container -> topics(container).stream()).distinct().sorted().toList())
+                .listeners(containers.stream().map(this::listenerStatus).toList());
+        if (current != null) {
+            status.lagUpdatedAt(current.updatedAt())
+                    .partitions(current.partitions())
+                    .totalLag(current.partitions().stream().mapToLong(PartitionLagDto::getLag).sum())
+                    .lagByTopic(current.partitions().stream().collect(Collectors.groupingBy(PartitionLagDto::getTopic,
+                            TreeMap::new, Collectors.summingLong(PartitionLagDto::getLag))))
+                    .consumedPerSecondByTopic(current.consumedPerSecondByTopic());
+        }
+        return status.build();
+    }
+
+    private List<PartitionLagDto> lag(Admin client, String group, Set<String> topics) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = client.listConsumerGroupOffsets(group)
+                .partitionsToOffsetAndMetadata().get(timeoutMs, TimeUnit.MILLISECONDS);
+
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (Map.Entry<String, KafkaFuture<TopicDescription>> topic : client.describeTopics(topics).topicNameValues().entrySet()) {
+            try {
+                topic.getValue().get(timeoutMs, TimeUnit.MILLISECONDS).partitions()
+                        .forEach(partition -> partitions.add(new TopicPartition(topic.getKey(), partition.partition())));
+            } catch (ExecutionException e) {
+                // Not created yet; nothing to lag behind
+                log.debug("Cannot describe topic {}: {}", topic.getKey(), e.getMessage());
+            }
+        }
+        if (partitions.isEmpty()) {
+            return List.of();
+        }
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end = offsets(client, partitions, OffsetSpec.latest());
+        // Without a committed offset the group starts from the earliest record (auto.offset.reset)
+        List<TopicPartition> uncommitted = partitions.stream().filter(partition -> committed.get(partition) == null).toList();
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> start = uncommitted.isEmpty()
+                ? Map.of() : offsets(client, uncommitted, OffsetSpec.earliest());
+
+        List<PartitionLagDto> result = new ArrayList<>(partitions.size());
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            long endOffset = end.get(partition).offset();
+            long position = offset != null ? offset.offset() : start.get(partition).offset();
+            result.add(PartitionLagDto.builder()
+                    .topic(partition.topic())
+                    .partition(partition.partition())
+                    .committedOffset(offset != null ? offset.offset() : null)
+                    .endOffset(endOffset)
+                    .lag(Math.max(0, endOffset - position))
+                    .build());
+        }
+        result.sort(Comparator.comparing(PartitionLagDto::getTopic).thenComparing(PartitionLagDto::getPartition));
+        return result;
+    }
+
+    private Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> offsets(Admin client, List<TopicPartition> partitions,
+                                                                               OffsetSpec spec) throws Exception {
+        return client.listOffsets(partitions.stream().collect(Collectors.toMap(Function.identity(), partition -> spec)))
+                .all().get(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void publish(List<PartitionLagDto> partitions) {
+        long now = System.nanoTime();
+        Map<String, Long> lagByTopic = new TreeMap<>();
+        Map<String, Long> positionByTopic = new HashMap<>();
+        for (PartitionLagDto partition : partitions) {
+            lagByTopic.merge(partition.getTopic(), partition.getLag(), Long::sum);
+            positionByTopic.merge(partition.getTopic(), partition.getEndOffset() - partition.getLag(), Long::sum);
+        }
+
+        // Throughput from how far the committed positions moved since the previous refresh
+        LagSnapshot previous = snapshot;
+        Map<String, Double> consumedPerSecond = new TreeMap<>();
+        if (previous != null) {
+            double seconds = Duration.ofNanos(now - previous.takenAtNanos()).toMillis() / 1000.0;
+            positionByTopic.forEach((topic, position) -> {
+                Long before = previous.positionByTopic().get(topic);
+                if (before != null && seconds > 0) {
+                    consumedPerSecond.put(topic, Math.max(0, position - before) / seconds);
+                }
+            });
+        }
+
+        snapshot = new LagSnapshot(LocalDateTime.now(), now, List.copyOf(partitions), positionByTopic, consumedPerSecond);
+        partitionLag.register(partitions.stream()
+                .<MultiGauge.Row<?>>map(partition -> MultiGauge.Row.of(Tags.of("topic", partition.getTopic(),
+                        "partition", String.valueOf(partition.getPartition())), partition.getLag()))
+                .toList(), true);
+        topicLag.register(lagByTopic.entrySet().stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("topic", entry.getKey()), entry.getValue()))
+                .toList(), true);
+        consumedRate.register(consumedPerSecond.entrySet().stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("topic", entry.getKey()), entry.getValue()))
+                .toList(), true);
+    }
+
+    private ListenerStatusDto listenerStatus(MessageListenerContainer container) {
+        List<String> topics = topics(container);
+        double recordsPerSecond = 0;
+        Double sinceLastPoll = null;
+        for (Map<MetricName, ? extends Metric> metrics : container.metrics().values()) {
+            for (Map.Entry<MetricName, ? extends Metric> metric : metrics.entrySet()) {
+                MetricName name = metric.getKey();
+                double value = metric.getValue().metricValue() instanceof Number number ? number.doubleValue() : Double.NaN;
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                // The consumer also reports the rate per topic; only the client-wide one is summed
+                if ("records-consumed-rate".equals(name.name()) && "consumer-fetch-manager-metrics".equals(name.group())
+                        && !name.tags().containsKey("topic")) {
+                    recordsPerSecond += value;
+                } else if ("last-poll-seconds-ago".equals(name.name()) && value >= 0) {
+                    sinceLastPoll = sinceLastPoll == null ? value : Math.min(sinceLastPoll, value);
+                }
+            }
+        }
+
+        ListenerStatusDto.ListenerStatusDtoBuilder status = ListenerStatusDto.builder()
+                .listenerId(container.getListenerId())
+                .topics(topics)
+                .running(container.isRunning())
+                .paused(container.isContainerPaused())
+                .recordsPerSecond(recordsPerSecond)
+                .secondsSinceLastPoll(sinceLastPoll);
+
+        long batches = 0;
+        double totalMs = 0;
+        double maxMs = 0;
+        double p95Ms = 0;
+        double p99Ms = 0;
+        for (String topic : topics) {
+            Timer timer = batchTimers.get(topic);
+            if (timer == null) {
+                continue;
+            }
+            HistogramSnapshot histogram = timer.takeSnapshot();
+            batches += histogram.count();
+            totalMs += histogram.total(TimeUnit.MILLISECONDS);
+            maxMs = Math.max(maxMs, histogram.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : histogram.percentileValues()) {
+                if (percentile.percentile() == 0.95) {
+                    p95Ms = Math.max(p95Ms, percentile.value(TimeUnit.MILLISECONDS));
+                } else if (percentile.percentile() == 0.99) {
+                    p99Ms = Math.max(p99Ms, percentile.value(TimeUnit.MILLISECONDS));
+                }
+            }
+        }
+        return status.batches(batches)
+                .processingMeanMs(batches > 0 ? totalMs / batches : null)
+                .processingP95Ms(batches > 0 ? p95Ms : null)
+                .processingP99Ms(batches > 0 ? p99Ms : null)
+                .processingMaxMs(batches > 0 ? maxMs : null)
+                .build();
+    }
+
+    // The dashboard relay reads with its own throwaway group and is not part of the consumer fleet
+    private List<MessageListenerContainer> consumerContainers() {
+        return listenerRegistry.getListenerContainers().stream()
+                .filter(container -> !EventRelayService.RELAY_LISTENER_ID.equals(container.getListenerId()))
+                .sorted(Comparator.comparing(MessageListenerContainer::getListenerId))
+                .toList();
+    }
+
+    private static List<String> topics(MessageListenerContainer container) {
+        String[] topics = container.getContainerProperties().getTopics();
+        return topics == null ? List.of() : Arrays.asList(topics);
+    }
+
+    // Created on first use: the client refuses to start while the bootstrap servers do not resolve
+    private Admin admin() {
+        Admin client = admin;
+        if (client == null) {
+            client = Admin.create(Map.of(
+                    AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                    AdminClientConfig.CLIENT_ID_CONFIG, "notification-lag-monitor",
+                    AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) timeoutMs,
+                    AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) timeoutMs));
+            admin = client;
+        }
+        return client;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        refresher.shutdownNow();
+        refresher.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        closeAdmin();
+    }
+
+    private void closeAdmin() {
+        Admin client = admin;
+        admin = null;
+        if (client != null) {
+            client.close(Duration.ofMillis(timeoutMs));
+        }
+    }
+}
@@ -4,17 +4,27 @@
 
 package com.example.notification.service;
 
-import com.example.notification.dto.KafkaEventDto;
+import com.example.notification.channel.ChannelDispatcher;
+import com.example.notification.channel.ChannelMessage;
 import com.example.notification.event.AccountEvent;
+import com.example.notification.event.EventEnvelope;
+import com.example.notification.event.LoanEvent;
 import com.example.notification.event.TransactionEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.notification.model.Notification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,129 +32,256 @@ import java.time.LocalDateTime;
 public class KafkaConsumerService {
 
     private final EmailService emailService;
-    private final EventTrackerService eventTrackerService;
-    private final EventBroadcasterService eventBroadcasterService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EventRelayService eventRelayService;
+    private final IdempotencyService idempotencyService;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final NotificationCoalescer notificationCoalescer;
+    private final ChannelDispatcher channelDispatcher;
+    private final NotificationPriorityClassifier priorityClassifier;
+    private final KafkaConsumerMonitor kafkaConsumerMonitor;
+
+    // Takes the records of a poll that may wait for a digest and marks those it kept. Kept records
+    // must be stored before it returns, since their offsets are committed with the poll.
+    @FunctionalInterface
+    private interface Deferral<T> {
+        boolean[] defer(List<T> events, List<String> keys);
+    }
+
+    // created: new notifications; resent: FAILED notifications sent again; skipped: already handled or unreadable
+    public record BatchOutcome(int created, int resent, int skipped) {
+    }
 
     @KafkaListener(
+        id = "transaction-listener",
         topics = "transaction-events",
         groupId = "notification-group",
         containerFactory = "transactionKafkaListenerContainerFactory"
     )
-    public void consumeTransactionEvent(TransactionEvent event) {
-        boolean processed = false;
-        try {
-            log.info("Received Transaction Event: {}", event);
-
-            if (event.getEmail() == null || event.getEmail().isEmpty()) {
-                log.warn("No email address provided in event: {}", event);
-                return;
-            }
-
-            String subject = "Transaction Notification";
-            String content = String.format("""
-                <html>
-                    <body>
-                        <h2>Transaction Alert</h2>
-                        <p>Dear Customer,</p>
-                        <p>Your transaction with reference %s has been processed.</p>
-                        <p><strong>Amount:</strong> %s</p>
-                        <p><strong>Type:</strong> %s</p>
-                        <p><strong>Status:</strong> %s</p>
-                        <p>Thank you for banking with us.</p>
-                    </body>
-                </html>
-                """,
-                event.getTransactionReference(),
-                event.getAmount(),
-                event.getType(),
-                event.getStatus());
-
-            log.info("event.getEmail(): {}, subject: {}, content: {}", event.getEmail(), subject, content);
-//            emailService.sendEmail(event.getEmail(), subject, content);
-            processed = true;
-
-        } catch (Exception e) {
-            log.error("Error processing transaction event: {}", event, e);
-        } finally {
-            // Update event tracking with final status and broadcast
-            try {
-                String eventData = objectMapper.writeValueAsString(event);
-                KafkaEventDto kafkaEvent = KafkaEventDto.builder()
-                        .eventType("TransactionEvent")
-                        .eventData(eventData)
-                        .timestamp(LocalDateTime.now())
-                        .topic("transaction-events")
-                        .processed(processed)
-                        .build();
-                eventTrackerService.trackEvent("TransactionEvent", eventData, "transaction-events", processed);
-                eventBroadcasterService.broadcastEvent(kafkaEvent);
-            } catch (JsonProcessingException e) {
-                log.warn("Failed to update event tracking status", e);
-            }
-        }
+    public void consumeTransactionEvents(List<EventEnvelope<TransactionEvent>> events) {
+        processBatch(events, "TransactionEvent", "transaction-events", this::transactionKey,
+            notificationCoalescer::offer, this::buildTransactionEmail);
     }
 
+    // Account and loan notifications are security relevant and are never coalesced into digests
     @KafkaListener(
+        id = "account-listener",
         topics = "account-events",
         groupId = "notification-group",
         containerFactory = "accountKafkaListenerContainerFactory"
     )
-    public void consumeAccountEvent(AccountEvent event) {
-        boolean processed = false;
+    public void consumeAccountEvents(List<EventEnvelope<AccountEvent>> events) {
+        processBatch(events, "AccountEvent", "account-events", this::accountKey, KafkaConsumerService::neverDefer, this::buildAccountEmail);
+    }
+
+    @KafkaListener(
+        id = "loan-listener",
+        topics = "loan-events",
+        groupId = "notification-group",
+        containerFactory = "loanKafkaListenerContainerFactory"
+    )
+    public void consumeLoanEvents(List<EventEnvelope<LoanEvent>> events) {
+        processBatch(events, "LoanEvent", "loan-events", this::loanKey, KafkaConsumerService::neverDefer, this::buildLoanEmail);
+    }
+
+    // Replayed events take the same dedupe and build path, on the BULK lane. They are not coalesced,
+    // fanned out to other channels or shown on the dashboard again. An event whose notification
+    // FAILED is sent again from the stored notification rather than producing a second one.
+    public BatchOutcome replayTransactionEvents(List<EventEnvelope<TransactionEvent>> events) {
+        return handleBatch(events, "TransactionEvent", "transaction-events", this::transactionKey,
+            KafkaConsumerService::neverDefer, this::buildTransactionEmail, true);
+    }
+
+    public BatchOutcome replayAccountEvents(List<EventEnvelope<AccountEvent>> events) {
+        return handleBatch(events, "AccountEvent", "account-events", this::accountKey,
+            KafkaConsumerService::neverDefer, this::buildAccountEmail, true);
+    }
+
+    public BatchOutcome replayLoanEvents(List<EventEnvelope<LoanEvent>> events) {
+        return handleBatch(events, "LoanEvent", "loan-events", this::loanKey,
+            KafkaConsumerService::neverDefer, this::buildLoanEmail, true);
+    }
+
+    // Drops redelivered records, hands deferrable ones to the digest stage, builds every remaining
+    // email of the poll, persists them with one batched insert, then tracks each record using its
+    // original bytes. A record that fails is only marked unprocessed; it never fails the rest of the batch.
+    private <T> void processBatch(List<EventEnvelope<T>> events, String eventType, String topic,
+                                  Function<T, String> eventKey,
+                                  Deferral<T> deferral,
+                                  Function<T, EmailService.EmailRequest> emailBuilder) {
+        long started = System.nanoTime();
         try {
-            log.info("Received Account Event: {}", event);
+            handleBatch(events, eventType, topic, eventKey, deferral, emailBuilder, false);
+        } finally {
+            kafkaConsumerMonitor.recordBatch(topic, events.size(), System.nanoTime() - started);
+        }
+    }
+
+    private <T> BatchOutcome handleBatch(List<EventEnvelope<T>> events, String eventType, String topic,
+                                         Function<T, String> eventKey,
+                                         Deferral<T> deferral,
+                                         Function<T, EmailService.EmailRequest> emailBuilder,
+                                         boolean replay) {
+        log.info("{} {} {} records", replay ? "Replaying" : "Received", events.size(), eventType);
 
-            if (event.getEmail() == null) {
-                log.error("No email in account event: {}", event);
-                return;
+        String[] keys = new String[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            T event = events.get(i) != null ? events.get(i).payload() : null;
+            if (event != null) {
+                keys[i] = eventKey.apply(event);
             }
+        }
+        Set<String> alreadyProcessed = idempotencyService.findProcessed(
+            Arrays.stream(keys).filter(Objects::nonNull).toList());
+        Set<String> seenInBatch = new HashSet<>();
+        int resent = replay ? emailService.resendFailed(idempotencyService.findNotificationIds(alreadyProcessed),
+            Notification.NotificationPriority.BULK) : 0;
+        int skipped = 0;
+        int created = 0;
 
-            String subject = "Account Notification";
-            // FIXED: Changed from plain text to HTML format to match expected email format
-            String content = String.format("""
-                <html>
-                    <body>
-                        <h2>Account Notification</h2>
-                        <p>Dear Customer,</p>
-                        <p>We're writing to inform you about your account:</p>
-                        <p><strong>Account Number:</strong> %s</p>
-                        <p><strong>Event:</strong> %s</p>
-                        <p><strong>Balance:</strong> %s %s</p>
-                        <p><strong>Created:</strong> %s</p>
-                        <p>Thank you for banking with us.</p>
-                    </body>
-                </html>
-                """,
-                event.getAccountNumber(),
-                event.getEventType(),
-                event.getBalance(),
-                event.getCurrency(),
-                event.getCreatedAt());
-
-//            emailService.sendEmail(event.getEmail(), subject, content);
-            log.info("event.getEmail(): {}, subject: {}, content: {}", event.getEmail(), subject, content);
-            processed = true;
-
-        } catch (Exception e) {
-            log.error("Failed to process account event", e);
-            throw e; // Re-throwing the exception
-        } finally {
-            // Update event tracking with final status and broadcast
+        List<EmailService.EmailRequest> requests = new ArrayList<>();
+        List<Integer> requestIndexes = new ArrayList<>();
+        boolean[] processed = new boolean[events.size()];
+        boolean[] duplicate = new boolean[events.size()];
+
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            T event = events.get(i) != null ? events.get(i).payload() : null;
+            if (event == null) {
+                // Value failed deserialization; ErrorHandlingDeserializer hands us null
+                log.warn("Skipping undeserializable {} record", eventType);
+                skipped++;
+                continue;
+            }
+            if (keys[i] != null && (alreadyProcessed.contains(keys[i]) || !seenInBatch.add(keys[i]))) {
+                log.debug("Skipping redelivered {} {}", eventType, keys[i]);
+                duplicate[i] = true;
+                skipped++;
+                continue;
+            }
+            candidates.add(i);
+        }
+
+        // Not caught: records that could not be stored for their digest must not be acknowledged,
+        // so a failure here fails the poll and it is redelivered
+        boolean[] deferred = deferral.defer(candidates.stream().map(i -> events.get(i).payload()).toList(),
+            candidates.stream().map(i -> keys[i]).toList());
+        for (int c = 0; c < candidates.size(); c++) {
+            int i = candidates.get(c);
+            T event = events.get(i).payload();
+            if (deferred[c]) {
+                processed[i] = true;
+                continue;
+            }
             try {
-                String eventData = objectMapper.writeValueAsString(event);
-                KafkaEventDto kafkaEvent = KafkaEventDto.builder()
-                        .eventType("AccountEvent")
-                        .eventData(eventData)
-                        .timestamp(LocalDateTime.now())
-                        .topic("account-events")
-                        .processed(processed)
-                        .build();
-                eventTrackerService.trackEvent("AccountEvent", eventData, "account-events", processed);
-                eventBroadcasterService.broadcastEvent(kafkaEvent);
-            } catch (JsonProcessingException e) {
-                log.warn("Failed to update event tracking status", e);
+                EmailService.EmailRequest request = emailBuilder.apply(event);
+                if (request != null) {
+                    requests.add(replay
+                        ? request.withEventKey(keys[i]).withPriority(Notification.NotificationPriority.BULK)
+                        : request.withEventKey(keys[i]));
+                    requestIndexes.add(i);
+                }
+            } catch (Exception e) {
+                log.error("Error processing {}: {}", eventType, event, e);
             }
         }
+
+        if (!requests.isEmpty()) {
+            List<Notification> saved = emailService.sendEmails(requests);
+            boolean routed = !replay && channelDispatcher.routes(eventType);
+            for (int r = 0; r < saved.size(); r++) {
+                processed[requestIndexes.get(r)] = saved.get(r) != null;
+                if (saved.get(r) != null) {
+                    created++;
+                }
+                if (routed && saved.get(r) != null) {
+                    channelDispatcher.dispatch(eventType, toChannelMessage(saved.get(r), eventType, requests.get(r)));
+                }
+            }
+        }
+
+        // Redeliveries and replays were tracked the first time round
+        for (int i = 0; i < events.size() && !replay; i++) {
+            if (events.get(i) != null && events.get(i).payload() != null && !duplicate[i]) {
+                eventRelayService.distribute(eventType, events.get(i).raw(), topic, processed[i]);
+            }
+        }
+        return new BatchOutcome(created, resent, skipped);
+    }
+
+    private static <T> boolean[] neverDefer(List<T> events, List<String> keys) {
+        return new boolean[events.size()];
+    }
+
+    // Coalesced transaction events are only summarized in their digest email, not fanned out
+    private ChannelMessage toChannelMessage(Notification notification, String eventType, EmailService.EmailRequest request) {
+        String text = request.params() == null ? request.subject()
+            : request.subject() + ": " + request.params().values().stream().map(String::valueOf).collect(Collectors.joining(", "));
+        return new ChannelMessage(notification.getId(), notification.getUserId(), notification.getEmail(),
+            eventType, request.subject(), text);
+    }
+
+    // Event identities used for dedupe; null disables dedupe for that record
+    private String transactionKey(TransactionEvent event) {
+        return event.getTransactionReference() == null ? null
+            : "transaction:" + event.getTransactionReference() + ":" + event.getStatus();
+    }
+
+    private String accountKey(AccountEvent event) {
+        return event.getAccountNumber() == null ? null
+            : "account:" + event.getAccountNumber() + ":" + event.getEventType();
+    }
+
+    private String loanKey(LoanEvent event) {
+        return event.getEventId() == null ? null : "loan:" + event.getEventId();
+    }
+
+    private EmailService.EmailRequest buildTransactionEmail(TransactionEvent event) {
+        log.debug("Received Transaction Event: {}", event);
+
+        if (event.getEmail() == null || event.getEmail().isEmpty()) {
+            log.warn("No email address provided in event: {}", event);
+            return null;
+        }
+
+        String subject = "Transaction Notification";
+        Map<String, Object> params = EmailParams.transaction(event);
+        String content = emailTemplateRenderer.render(EmailTemplate.TRANSACTION, params);
+
+        return new EmailService.EmailRequest(event.getEmail(), subject, content, EmailTemplate.TRANSACTION, params, event.getUserId())
+            .withPriority(priorityClassifier.transaction(event));
+    }
+
+    private EmailService.EmailRequest buildAccountEmail(AccountEvent event) {
+        log.debug("Received Account Event: {}", event);
+
+        if (event.getEmail() == null) {
+            log.error("No email in account event: {}", event);
+            return null;
+        }
+
+        String subject = "Account Notification";
+        Map<String, Object> params = EmailParams.account(event);
+        String content = emailTemplateRenderer.render(EmailTemplate.ACCOUNT, params);
+
+        return new EmailService.EmailRequest(event.getEmail(), subject, content, EmailTemplate.ACCOUNT, params, event.getUserId())
+            .withPriority(priorityClassifier.account(event));
+    }
+
+    private EmailService.EmailRequest buildLoanEmail(LoanEvent event) {
+        log.debug("Received Loan Event: {}", event);
+
+        if (event.getEmail() == null || event.getEmail().isEmpty()) {
+            log.warn("No email address provided in loan event: {}", event);
+            return null;
+        }
+
+        String subject = "LOAN_DUE_REMINDER".equals(event.getEventType())
+            ? "Loan Payment Reminder"
+            : "Loan Notification";
+        Map<String, Object> params = EmailParams.loan(event);
+        String content = emailTemplateRenderer.render(EmailTemplate.LOAN, params);
+
+        return new EmailService.EmailRequest(event.getEmail(), subject, content, EmailTemplate.LOAN, params, event.getAuthId())
+            .withPriority(priorityClassifier.loan(event));
     }
-}
\ No newline at end of file
+}
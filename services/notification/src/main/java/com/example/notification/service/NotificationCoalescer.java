@@ -0,0 +1,288 @@
+package com.example.notification.service;
+
+import com.example.notification.event.TransactionEvent;
+import com.example.notification.model.DigestEntry;
+import com.example.notification.model.Notification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Coalesces bursts of transaction emails into digests. The first event for an address is sent
+// right away and opens a window; events arriving while the window is open are buffered and sent
+// as one digest when it closes or fills up. Bypassed statuses and types, and HIGH priority events,
+// are always sent at once. Digests go out on the BULK lane.
+//
+// Buffered events are stored in digest_entries before offer returns, so the consumer can commit
+// their offsets; a digest's rows are deleted once its notification is stored. Rows older than
+// twice the window belong to no open window (an instance died, or a send failed) and are sent by
+// whichever instance's sweep finds them first; event keys keep that from sending one twice.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationCoalescer {
+
+    private final EmailService emailService;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final IdempotencyService idempotencyService;
+    private final NotificationPriorityClassifier priorityClassifier;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, PendingDigest> windows = new ConcurrentHashMap<>();
+
+    private static final int ORPHAN_BATCH_SIZE = 1000;
+
+    private static final String INSERT_ENTRY = """
+        INSERT INTO digest_entries (entry_key, email, user_id, payload, buffered_at) VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (entry_key) DO NOTHING
+        """;
+
+    private static final String DELETE_ENTRY = "DELETE FROM digest_entries WHERE entry_key = ?";
+
+    private static final String FIND_ORPHANS =
+        "SELECT entry_key, email, user_id, payload FROM digest_entries WHERE buffered_at < ? ORDER BY buffered_at LIMIT ?";
+
+    @Value("${application.config.digest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.config.digest.window-ms:60000}")
+    private long windowMs;
+
+    @Value("${application.config.digest.max-events:50}")
+    private int maxEvents;
+
+    @Value("${application.config.digest.bypass-statuses:FAILED,REVERSED}")
+    private Set<String> bypassStatuses;
+
+    @Value("${application.config.digest.bypass-types:}")
+    private Set<String> bypassTypes;
+
+    // Marks the events that joined an open window and were buffered; the rest should be sent now.
+    // Buffered events are stored before this returns. If storing fails the exception propagates,
+    // the poll is redelivered, and the redelivered events replace their buffered copies by key.
+    public boolean[] offer(List<TransactionEvent> events, List<String> eventKeys) {
+        boolean[] deferred = new boolean[events.size()];
+        if (!enabled) {
+            return deferred;
+        }
+        long now = System.currentTimeMillis();
+        LocalDateTime bufferedAt = LocalDateTime.now();
+        List<Object[]> entries = new ArrayList<>();
+        List<PendingDigest> full = new ArrayList<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            TransactionEvent event = events.get(i);
+            if (bypasses(event)) {
+                continue;
+            }
+            String key = eventKeys.get(i) != null ? eventKeys.get(i) : PendingDigest.UNKEYED + UUID.randomUUID();
+            int index = i;
+            windows.compute(event.getEmail(), (email, digest) -> {
+                if (digest == null) {
+                    return new PendingDigest(email, event.getUserId(), now);
+                }
+                deferred[index] = true;
+                digest.events.put(key, event);
+                if (digest.events.size() >= maxEvents) {
+                    // Keep the window open so the rest of the burst keeps coalescing
+                    full.add(digest);
+                    return new PendingDigest(email, event.getUserId(), now);
+                }
+                return digest;
+            });
+            if (deferred[i]) {
+                entries.add(new Object[]{key, event.getEmail(), event.getUserId(), writeEvent(event), bufferedAt});
+            }
+        }
+
+        if (!entries.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, entries);
+        }
+        if (!full.isEmpty()) {
+            send(full);
+        }
+        return deferred;
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.digest.sweep-interval-ms:1000}")
+    public void flushExpired() {
+        long now = System.currentTimeMillis();
+        List<PendingDigest> due = new ArrayList<>();
+        for (String email : windows.keySet()) {
+            windows.computeIfPresent(email, (key, digest) -> {
+                if (now - digest.openedAt < windowMs) {
+                    return digest;
+                }
+                if (!digest.events.isEmpty()) {
+                    due.add(digest);
+                }
+                return null;
+            });
+        }
+        if (!due.isEmpty()) {
+            send(due);
+        }
+        sendOrphans();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<PendingDigest> remaining = new ArrayList<>();
+        for (String email : windows.keySet()) {
+            PendingDigest digest = windows.remove(email);
+            if (digest != null && !digest.events.isEmpty()) {
+                remaining.add(digest);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            log.info("Sending {} pending digests before shutdown", remaining.size());
+            send(remaining);
+        }
+    }
+
+    private boolean bypasses(TransactionEvent event) {
+        return event.getEmail() == null || event.getEmail().isEmpty()
+            || bypassStatuses.contains(event.getStatus())
+            || bypassTypes.contains(event.getType())
+            || priorityClassifier.transaction(event) == Notification.NotificationPriority.HIGH;
+    }
+
+    private void send(List<PendingDigest> digests) {
+        try {
+            // Drop events another instance handled while they were buffered, so a single redelivery
+            // cannot make the whole digest fail its dedupe insert
+            Set<String> processed = idempotencyService.findProcessed(digests.stream()
+                .flatMap(digest -> digest.keys().stream())
+                .toList());
+
+            List<String> done = new ArrayList<>();
+            List<EmailService.EmailRequest> requests = new ArrayList<>(digests.size());
+            List<List<String>> requestEntries = new ArrayList<>(digests.size());
+            for (PendingDigest digest : digests) {
+                List<String> entryKeys = List.copyOf(digest.events.keySet());
+                processed.forEach(digest.events::remove);
+                if (digest.events.isEmpty()) {
+                    done.addAll(entryKeys);
+                } else {
+                    requests.add(toRequest(digest));
+                    requestEntries.add(entryKeys);
+                }
+            }
+            if (!requests.isEmpty()) {
+                List<Notification> saved = emailService.sendEmails(requests);
+                for (int r = 0; r < saved.size(); r++) {
+                    if (saved.get(r) != null) {
+                        done.addAll(requestEntries.get(r));
+                    }
+                }
+            }
+            if (!done.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_ENTRY, done.stream().map(key -> new Object[]{key}).toList());
+            }
+        } catch (Exception e) {
+            log.error("Failed to send {} transaction digests; their stored events are retried by the sweep", digests.size(), e);
+        }
+    }
+
+    private void sendOrphans() {
+        List<DigestEntry> orphans;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(2 * windowMs, ChronoUnit.MILLIS);
+            orphans = jdbcTemplate.query(FIND_ORPHANS, (rs, rowNum) -> new DigestEntry(rs.getString("entry_key"),
+                rs.getString("email"), rs.getObject("user_id", Long.class), rs.getString("payload"), null),
+                cutoff, ORPHAN_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Cannot look up orphaned digest entries: {}", e.getMessage());
+            return;
+        }
+        if (orphans.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, PendingDigest> byEmail = new LinkedHashMap<>();
+        List<PendingDigest> digests = new ArrayList<>();
+        List<Object[]> unreadable = new ArrayList<>();
+        for (DigestEntry entry : orphans) {
+            TransactionEvent event;
+            try {
+                event = objectMapper.readValue(entry.getPayload(), TransactionEvent.class);
+            } catch (JsonProcessingException e) {
+                log.error("Dropping unreadable digest entry {}: {}", entry.getEntryKey(), e.getMessage());
+                unreadable.add(new Object[]{entry.getEntryKey()});
+                continue;
+            }
+            PendingDigest digest = byEmail.computeIfAbsent(entry.getEmail(), email -> new PendingDigest(email, entry.getUserId(), now));
+            digest.events.put(entry.getEntryKey(), event);
+            if (digest.events.size() >= maxEvents) {
+                digests.add(byEmail.remove(entry.getEmail()));
+            }
+        }
+        digests.addAll(byEmail.values());
+        if (!unreadable.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_ENTRY, unreadable);
+        }
+        log.info("Sending {} orphaned digest entries as {} digests", orphans.size(), digests.size());
+        send(digests);
+    }
+
+    private EmailService.EmailRequest toRequest(PendingDigest digest) {
+        List<TransactionEvent> events = List.copyOf(digest.events.values());
+        if (events.size() == 1) {
+            Map<String, Object> params = EmailParams.transaction(events.get(0));
+            return new EmailService.EmailRequest(digest.email, "Transaction Notification",
+                emailTemplateRenderer.render(EmailTemplate.TRANSACTION, params),
+                EmailTemplate.TRANSACTION, params, digest.userId)
+                .withEventKeys(digest.keys()).withPriority(Notification.NotificationPriority.BULK);
+        }
+        Map<String, Object> params = Map.of("events", events.stream().map(EmailParams::transaction).toList());
+        return new EmailService.EmailRequest(digest.email, "Transaction Summary (" + events.size() + " transactions)",
+            emailTemplateRenderer.render(EmailTemplate.TRANSACTION_DIGEST, params),
+            EmailTemplate.TRANSACTION_DIGEST, params, digest.userId)
+            .withEventKeys(digest.keys()).withPriority(Notification.NotificationPriority.BULK);
+    }
+
+    // Mutated only inside ConcurrentHashMap.compute for its address, so it needs no locking of its own
+    private static final class PendingDigest {
+        private static final String UNKEYED = "unkeyed:";
+
+        private final String email;
+        private final Long userId;
+        private final long openedAt;
+        // Keyed by entry key so a redelivery inside the window replaces rather than repeats the line
+        private final LinkedHashMap<String, TransactionEvent> events = new LinkedHashMap<>();
+
+        private PendingDigest(String email, Long userId, long openedAt) {
+            this.email = email;
+            this.userId = userId;
+            this.openedAt = openedAt;
+        }
+
+        private List<String> keys() {
+            return events.keySet().stream().filter(key -> !key.startsWith(UNKEYED)).toList();
+        }
+    }
+
+    private String writeEvent(TransactionEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store transaction event " + event.getTransactionReference(), e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.NotificationStatsDto;
+import com.example.notification.dto.StatsBucketDto;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationCounter;
+import com.example.notification.repository.NotificationCounterRepository;
+import com.example.notification.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Notification statistics without scanning the notifications table. Status transitions update
+// in-memory counters and a rolling window of per-minute buckets; the counters are flushed to
+// notification_counters as additive deltas and re-read, so totals converge across instances.
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class NotificationCounterService {
+
+    private static final long MINUTE_MS = 60_000L;
+
+    private static final class MinuteBucket {
+        private final long minute;
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository counterRepository;
+    private final Map<Notification.NotificationStatus, LongAdder> unflushed = new EnumMap<>(Notification.NotificationStatus.class);
+    private volatile Map<Notification.NotificationStatus, Long> persisted = new EnumMap<>(Notification.NotificationStatus.class);
+    private final AtomicReferenceArray<MinuteBucket> buckets;
+
+    public NotificationCounterService(NotificationRepository notificationRepository,
+                                      NotificationCounterRepository counterRepository,
+                                      @Value("${application.config.stats.window-minutes:60}") int windowMinutes) {
+        this.notificationRepository = notificationRepository;
+        this.counterRepository = counterRepository;
+        this.buckets = new AtomicReferenceArray<>(windowMinutes);
+        for (Notification.NotificationStatus status : Notification.NotificationStatus.values()) {
+            unflushed.put(status, new LongAdder());
+        }
+    }
+
+    // Seeds notification_counters with one GROUP BY the first time, then only reads the counter rows
+    @PostConstruct
+    public void bootstrap() {
+        if (counterRepository.count() == 0) {
+            Map<Notification.NotificationStatus, Long> counts = new EnumMap<>(Notification.NotificationStatus.class);
+            for (Notification.NotificationStatus status : Notification.NotificationStatus.values()) {
+                counts.put(status, 0L);
+            }
+            for (Object[] row : notificationRepository.countGroupedByStatus()) {
+                counts.put((Notification.NotificationStatus) row[0], (Long) row[1]);
+            }
+            try {
+                counterRepository.saveAll(counts.entrySet().stream()
+                    .map(e -> new NotificationCounter(e.getKey(), e.getValue()))
+                    .toList());
+                log.info("Seeded notification counters: {}", counts);
+            } catch (DataIntegrityViolationException e) {
+                log.info("Notification counters were seeded by another instance");
+            }
+        }
+        reload();
+    }
+
+    public void recordCreated(int count) {
+        if (count > 0) {
+            unflushed.get(Notification.NotificationStatus.PENDING).add(count);
+        }
+    }
+
+    public void recordTransition(Notification.NotificationStatus from, Notification.NotificationStatus to, int count) {
+        if (count <= 0 || from == to) {
+            return;
+        }
+        unflushed.get(from).add(-count);
+        unflushed.get(to).add(count);
+
+        MinuteBucket bucket = currentBucket();
+        if (to == Notification.NotificationStatus.SENT) {
+            bucket.sent.add(count);
+        } else if (to == Notification.NotificationStatus.FAILED) {
+            bucket.failed.add(count);
+        }
+    }
+
+    // Used when rows are removed in bulk, e.g. by retention
+    public void recordRemoved(Notification.NotificationStatus status, long count) {
+        if (count > 0) {
+            unflushed.get(status).add(-count);
+        }
+    }
+
+    public NotificationStatsDto getStatistics() {
+        long sent = current(Notification.NotificationStatus.SENT);
+        long failed = current(Notification.NotificationStatus.FAILED);
+        long pending = current(Notification.NotificationStatus.PENDING);
+        long total = sent + failed + pending;
+
+        return NotificationStatsDto.builder()
+                .totalNotifications(total)
+                .sentCount(sent)
+                .failedCount(failed)
+                .pendingCount(pending)
+                .successRate(total > 0 ? (double) sent / total * 100 : 0.0)
+                .timeline(timeline())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.stats.flush-interval-ms:5000}")
+    public void flush() {
+        unflushed.forEach((status, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                try {
+                    counterRepository.addDelta(status, delta);
+                } catch (Exception e) {
+                    adder.add(delta);
+                    log.warn("Failed to flush {} counter delta {}: {}", status, delta, e.getMessage());
+                }
+            }
+        });
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void reload() {
+        try {
+            Map<Notification.NotificationStatus, Long> snapshot = new EnumMap<>(Notification.NotificationStatus.class);
+            counterRepository.findAll().forEach(counter -> snapshot.put(counter.getStatus(), counter.getCount()));
+            persisted = snapshot;
+        } catch (Exception e) {
+            log.warn("Failed to reload notification counters: {}", e.getMessage());
+        }
+    }
+
+    private long current(Notification.NotificationStatus status) {
+        return Math.max(0, persisted.getOrDefault(status, 0L) + unflushed.get(status).sum());
+    }
+
+    private MinuteBucket currentBucket() {
+        long minute = System.currentTimeMillis() / MINUTE_MS;
+        int index = (int) (minute % buckets.length());
+        while (true) {
+            MinuteBucket bucket = buckets.get(index);
+            if (bucket != null && bucket.minute == minute) {
+                return bucket;
+            }
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    // Oldest first, one entry per minute of the window including empty minutes
+    private List<StatsBucketDto> timeline() {
+        long now = System.currentTimeMillis() / MINUTE_MS;
+        List<StatsBucketDto> timeline = new ArrayList<>(buckets.length());
+        for (long minute = now - buckets.length() + 1; minute <= now; minute++) {
+            MinuteBucket bucket = buckets.get((int) (minute % buckets.length()));
+            boolean live = bucket != null && bucket.minute == minute;
+            timeline.add(StatsBucketDto.builder()
+                    .minute(LocalDateTime.ofInstant(Instant.ofEpochMilli(minute * MINUTE_MS), ZoneId.systemDefault()))
+                    .sentCount(live ? bucket.sent.sum() : 0L)
+                    .failedCount(live ? bucket.failed.sum() : 0L)
+                    .build());
+        }
+        return timeline;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.NotificationInboxPageDto;
+import com.example.notification.dto.NotificationSummaryDto;
+import com.example.notification.model.Notification;
+import com.example.notification.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+// Per-user inbox paged by keyset on (sent_at, id) rather than OFFSET, so every page costs the
+// same index range scan no matter how deep the client has scrolled
+@Service
+@RequiredArgsConstructor
+public class NotificationInboxService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final NotificationRepository notificationRepository;
+
+    // Throws IllegalArgumentException for a cursor this service did not issue
+    public NotificationInboxPageDto getInbox(Long userId, String cursor, int size, boolean unreadOnly) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<NotificationSummaryDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findInboxFirstPage(userId, unreadOnly, limit);
+        } else {
+            Cursor position = decode(cursor);
+            rows = notificationRepository.findInboxPageBefore(userId, unreadOnly, position.sentAt(), position.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return NotificationInboxPageDto.builder().items(rows).build();
+        }
+        List<NotificationSummaryDto> page = rows.subList(0, pageSize);
+        NotificationSummaryDto last = page.get(pageSize - 1);
+        return NotificationInboxPageDto.builder()
+                .items(List.copyOf(page))
+                .nextCursor(encode(new Cursor(last.getSentAt(), last.getId())))
+                .build();
+    }
+
+    public Optional<Notification> getNotification(Long userId, Long id) {
+        return notificationRepository.findByIdAndUserId(id, userId);
+    }
+
+    public long countUnread(Long userId) {
+        return notificationRepository.countByUserIdAndReadAtIsNull(userId);
+    }
+
+    // False when the notification does not exist for this user
+    public boolean markRead(Long userId, Long id) {
+        return notificationRepository.markRead(userId, id, LocalDateTime.now()) > 0
+            || notificationRepository.findByIdAndUserId(id, userId).isPresent();
+    }
+
+    public boolean markUnread(Long userId, Long id) {
+        return notificationRepository.markUnread(userId, id) > 0;
+    }
+
+    public int markAllRead(Long userId) {
+        return notificationRepository.markAllRead(userId, LocalDateTime.now());
+    }
+
+    private record Cursor(LocalDateTime sentAt, Long id) {
+    }
+
+    private static String encode(Cursor cursor) {
+        String raw = cursor.sentAt() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid inbox cursor");
+            }
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid inbox cursor", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.notification.service;
+
+import com.example.notification.event.AccountEvent;
+import com.example.notification.event.LoanEvent;
+import com.example.notification.event.TransactionEvent;
+import com.example.notification.model.Notification.NotificationPriority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+// Picks the delivery lane for each event. Failed or reversed transactions, large amounts and
+// security relevant account and loan events go HIGH; routine receipts and reminders go BULK so
+// a flood of them can never hold the alerts back.
+@Component
+public class NotificationPriorityClassifier {
+
+    @Value("${application.config.priority.high-statuses:FAILED,REVERSED}")
+    private Set<String> highStatuses;
+
+    @Value("${application.config.priority.high-amount:10000}")
+    private BigDecimal highAmount;
+
+    // Transaction receipts below this amount go to the bulk lane
+    @Value("${application.config.priority.bulk-amount:1000}")
+    private BigDecimal bulkAmount;
+
+    @Value("${application.config.priority.high-event-types:LOAN_OVERDUE}")
+    private Set<String> highEventTypes;
+
+    @Value("${application.config.priority.bulk-event-types:LOAN_DUE_REMINDER}")
+    private Set<String> bulkEventTypes;
+
+    public NotificationPriority transaction(TransactionEvent event) {
+        BigDecimal amount = event.getAmount();
+        if (highStatuses.contains(event.getStatus()) || (amount != null && amount.compareTo(highAmount) >= 0)) {
+            return NotificationPriority.HIGH;
+        }
+        return amount == null || amount.compareTo(bulkAmount) < 0 ? NotificationPriority.BULK : NotificationPriority.NORMAL;
+    }
+
+    // Account changes are always treated as security relevant unless explicitly demoted
+    public NotificationPriority account(AccountEvent event) {
+        return bulkEventTypes.contains(event.getEventType()) ? NotificationPriority.BULK : NotificationPriority.HIGH;
+    }
+
+    public NotificationPriority loan(LoanEvent event) {
+        if (highEventTypes.contains(event.getEventType())) {
+            return NotificationPriority.HIGH;
+        }
+        return bulkEventTypes.contains(event.getEventType()) ? NotificationPriority.BULK : NotificationPriority.NORMAL;
+    }
+}
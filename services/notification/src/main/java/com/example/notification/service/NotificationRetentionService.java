@@ -0,0 +1,232 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Keeps monthly notifications partitions created ahead of time and removes whole partitions once
+// they are past retention, so purging never deletes row by row and index sizes stay bounded.
+// Maintenance runs under transaction-scoped advisory locks so only one instance does it at a time.
+@Slf4j
+@Service
+@DependsOn("notificationSchemaInitializer")
+public class NotificationRetentionService {
+
+    public enum RetentionMode {
+        // Drop expired partitions
+        DROP,
+        // Detach them into standalone tables, e.g. for archiving, and leave removal to operators
+        DETACH
+    }
+
+    private record Partition(String name, LocalDateTime upperBound) {
+    }
+
+    private static final String PARTITIONS = """
+        SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'notifications'::regclass
+        """;
+
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private static final long MAINTENANCE_LOCK = 0x6e6f746966L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationCounterService notificationCounterService;
+    private final boolean purgeEnabled;
+    private final int retentionMonths;
+    private final int premakeMonths;
+    private final RetentionMode mode;
+
+    private final Counter partitionsPurged;
+    private final Counter rowsPurged;
+    private final Timer maintenanceTimer;
+    private final AtomicInteger partitionCount = new AtomicInteger();
+
+    public NotificationRetentionService(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        NotificationCounterService notificationCounterService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${application.config.retention.enabled:true}") boolean purgeEnabled,
+                                        @Value("${application.config.retention.months:12}") int retentionMonths,
+                                        @Value("${application.config.retention.premake-months:2}") int premakeMonths,
+                                        @Value("${application.config.retention.mode:DROP}") RetentionMode mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.notificationCounterService = notificationCounterService;
+        this.purgeEnabled = purgeEnabled;
+        this.retentionMonths = retentionMonths;
+        this.premakeMonths = premakeMonths;
+        this.mode = mode;
+
+        this.partitionsPurged = Counter.builder("notification.retention.partitions.purged")
+                .description("Expired notifications partitions dropped or detached")
+                .register(meterRegistry);
+        this.rowsPurged = Counter.builder("notification.retention.rows.purged")
+                .description("Notifications removed together with their partition")
+                .register(meterRegistry);
+        this.maintenanceTimer = Timer.builder("notification.retention.maintenance")
+                .description("Time spent creating and purging notifications partitions")
+                .register(meterRegistry);
+        Gauge.builder("notification.partitions", partitionCount, AtomicInteger::get)
+                .description("Partitions currently attached to notifications")
+                .register(meterRegistry);
+    }
+
+    // Partitions for the coming months must exist before listeners start inserting
+    @PostConstruct
+    public void init() {
+        maintain(false);
+    }
+
+    @Scheduled(cron = "${application.config.retention.cron:0 15 2 * * *}")
+    public void scheduledMaintenance() {
+        maintain(purgeEnabled);
+    }
+
+    // Creation and purge commit separately, so a partition that cannot be created never holds back
+    // the purge. Each takes the advisory lock in its own transaction.
+    private void maintain(boolean purge) {
+        Map<Notification.NotificationStatus, Long> removed = new EnumMap<>(Notification.NotificationStatus.class);
+        AtomicInteger purged = new AtomicInteger();
+        maintenanceTimer.record(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (lock()) {
+                        createUpcoming(partitions());
+                    }
+                });
+            } catch (Exception e) {
+                log.error("Creating notification partitions failed", e);
+            }
+            if (!purge) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (lock()) {
+                        purged.set(purgeExpired(partitions(), removed));
+                    }
+                });
+            } catch (Exception e) {
+                log.error("Purging notification partitions failed", e);
+                removed.clear();
+                purged.set(0);
+            }
+        });
+        // Only once the drop has committed
+        removed.forEach(notificationCounterService::recordRemoved);
+        partitionsPurged.increment(purged.get());
+        rowsPurged.increment(removed.values().stream().mapToLong(Long::longValue).sum());
+        partitionCount.set(partitions().size());
+    }
+
+    private boolean lock() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, MAINTENANCE_LOCK);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Notification partition maintenance is running on another instance");
+        }
+        return Boolean.TRUE.equals(locked);
+    }
+
+    private void createUpcoming(List<Partition> partitions) {
+        LocalDateTime currentMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime until = currentMonth.plusMonths(premakeMonths + 1L);
+        LocalDateTime from = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(bound -> bound != null)
+                .max(LocalDateTime::compareTo)
+                .orElse(currentMonth);
+        String defaultPartition = partitions.stream()
+                .filter(partition -> partition.upperBound() == null)
+                .map(Partition::name)
+                .findFirst()
+                .orElse(null);
+
+        while (from.isBefore(until)) {
+            LocalDateTime to = from.plusMonths(1);
+            createPartition("notifications_p%04d_%02d".formatted(from.getYear(), from.getMonthValue()), from, to, defaultPartition);
+            from = to;
+        }
+    }
+
+    // A new range cannot be carved out of the default partition while it holds rows in that range,
+    // e.g. written ahead of the premade months by a skewed clock. Those rows are moved into the new
+    // table before it is attached.
+    private void createPartition(String name, LocalDateTime from, LocalDateTime to, String defaultPartition) {
+        long misplaced = defaultPartition == null ? 0 : jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + defaultPartition + " WHERE sent_at >= ? AND sent_at < ?", Long.class, from, to);
+        if (misplaced == 0) {
+            jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF notifications "
+                    + "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            log.info("Created notifications partition {}", name);
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE notifications INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition
+                + " WHERE sent_at >= ? AND sent_at < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE notifications ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Created notifications partition {} with {} rows moved from {}", name, moved, defaultPartition);
+    }
+
+    // Returns the number of partitions removed; their row counts per status are added to removed
+    private int purgeExpired(List<Partition> partitions, Map<Notification.NotificationStatus, Long> removed) {
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).atStartOfDay().minusMonths(retentionMonths);
+        List<Partition> expired = new ArrayList<>();
+        for (Partition partition : partitions) {
+            // The DEFAULT partition has no bound and is never purged
+            if (partition.upperBound() != null && !partition.upperBound().isAfter(cutoff)) {
+                expired.add(partition);
+            }
+        }
+
+        for (Partition partition : expired) {
+            long rows = 0;
+            for (Map<String, Object> row : jdbcTemplate.queryForList(
+                    "SELECT status, COUNT(*) AS count FROM " + partition.name() + " GROUP BY status")) {
+                long count = ((Number) row.get("count")).longValue();
+                removed.merge(Notification.NotificationStatus.valueOf((String) row.get("status")), count, Long::sum);
+                rows += count;
+            }
+            if (mode == RetentionMode.DETACH) {
+                jdbcTemplate.execute("ALTER TABLE notifications DETACH PARTITION " + partition.name());
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+            }
+            log.info("{} notifications partition {} ({} rows, older than {})",
+                    mode == RetentionMode.DETACH ? "Detached" : "Dropped", partition.name(), rows, cutoff);
+        }
+        return expired.size();
+    }
+
+    private List<Partition> partitions() {
+        return jdbcTemplate.query(PARTITIONS, (rs, rowNum) -> {
+            Matcher matcher = UPPER_BOUND.matcher(rs.getString(2));
+            LocalDateTime upperBound = matcher.find() ? LocalDateTime.parse(matcher.group(1).replace(' ', 'T')) : null;
+            return new Partition(rs.getString(1), upperBound);
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import com.example.notification.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Collects delivery outcomes from the SMTP workers and writes them as one UPDATE per status
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationStatusWriter {
+
+    private record StatusUpdate(Long notificationId, Notification.NotificationStatus status) {
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounterService notificationCounterService;
+    private final ConcurrentLinkedQueue<StatusUpdate> pending = new ConcurrentLinkedQueue<>();
+
+    @Value("${application.config.email.status-batch-size:500}")
+    private int batchSize;
+
+    public void record(Long notificationId, Notification.NotificationStatus status) {
+        pending.add(new StatusUpdate(notificationId, status));
+    }
+
+    // Writes only what was queued when the tick started; updates that fail go back on the queue and
+    // wait for the next tick instead of being retried in a loop against a failing database
+    @Scheduled(fixedDelayString = "${application.config.email.status-flush-interval-ms:500}")
+    public void flush() {
+        Map<Notification.NotificationStatus, List<Long>> byStatus = new EnumMap<>(Notification.NotificationStatus.class);
+        int snapshot = pending.size();
+        StatusUpdate update;
+        for (int i = 0; i < snapshot && (update = pending.poll()) != null; i++) {
+            byStatus.computeIfAbsent(update.status(), s -> new ArrayList<>()).add(update.notificationId());
+        }
+        byStatus.forEach((status, ids) -> {
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                write(status, ids.subList(from, Math.min(from + batchSize, ids.size())));
+            }
+        });
+    }
+
+    private void write(Notification.NotificationStatus status, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            int updated = notificationRepository.transitionStatus(ids, Notification.NotificationStatus.PENDING, status);
+            notificationCounterService.recordTransition(Notification.NotificationStatus.PENDING, status, updated);
+        } catch (Exception e) {
+            // Put them back so the next flush retries
+            log.error("Failed to update {} notifications to {}: {}", ids.size(), status, e.getMessage());
+            ids.forEach(id -> pending.add(new StatusUpdate(id, status)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.notification.util;
+
+// Consecutive-failure circuit breaker. After failureThreshold failures in a row it opens for openMs
+// and rejects calls; then a single trial call is let through, which closes it again on success or
+// reopens it on failure.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+    }
+
+    // 0 when a call may proceed now, otherwise how long to wait before asking again
+    public synchronized long permitDelayMs() {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openMs - System.currentTimeMillis();
+            if (remaining > 0) {
+                return remaining;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                // Poll again shortly; the trial call decides which way the breaker goes
+                return Math.min(openMs, 100);
+            }
+            trialInFlight = true;
+        }
+        return 0;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    // Ends a permitted call that said nothing about the downstream's health; a half-open breaker
+    // stays half-open and lets the next trial through
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
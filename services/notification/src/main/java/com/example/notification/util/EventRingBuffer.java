@@ -0,0 +1,96 @@
+package com.example.notification.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+// Fixed-capacity multi-producer ring buffer. Writers claim a monotonically increasing sequence with a
+// single getAndIncrement and publish into slot (sequence & mask); readers walk sequences backwards
+// and skip slots that have been overwritten or are not yet published. No locks, no sorting.
+public class EventRingBuffer<T> {
+
+    private record Slot<T>(long sequence, T value) {
+    }
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private volatile long floor;
+
+    public EventRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity);
+        if (capacity < requestedCapacity) {
+            capacity <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    // The factory receives the claimed sequence so it can be embedded in the stored value
+    public T add(LongFunction<T> factory) {
+        long sequence = nextSequence.getAndIncrement();
+        T value = factory.apply(sequence);
+        slots.set((int) (sequence & mask), new Slot<>(sequence, value));
+        return value;
+    }
+
+    // Stores a value under an externally assigned sequence, e.g. a Kafka offset. Meant for a single
+    // writer delivering increasing sequences; gaps are fine, readers skip slots that don't match.
+    // Not to be mixed with add on the same buffer, whose sequences would collide with these.
+    public void put(long sequence, T value) {
+        slots.set((int) (sequence & mask), new Slot<>(sequence, value));
+        nextSequence.accumulateAndGet(sequence + 1, Math::max);
+    }
+
+    // Newest first
+    public List<T> latest(int limit) {
+        long newest = nextSequence.get() - 1;
+        long oldest = Math.max(floor, newest - mask);
+        List<T> result = new ArrayList<>(Math.max(0, (int) Math.min(limit, newest - oldest + 1)));
+        for (long sequence = newest; sequence >= oldest && result.size() < limit; sequence--) {
+            Slot<T> slot = slots.get((int) (sequence & mask));
+            if (slot != null && slot.sequence() == sequence) {
+                result.add(slot.value());
+            }
+        }
+        return result;
+    }
+
+    // Oldest first, everything still buffered with a sequence greater than the given one
+    public List<T> after(long sequence) {
+        long newest = nextSequence.get() - 1;
+        long oldest = Math.max(Math.max(floor, newest - mask), sequence + 1);
+        List<T> result = new ArrayList<>(Math.max(0, (int) (newest - oldest + 1)));
+        for (long current = oldest; current <= newest; current++) {
+            Slot<T> slot = slots.get((int) (current & mask));
+            if (slot != null && slot.sequence() == current) {
+                result.add(slot.value());
+            }
+        }
+        return result;
+    }
+
+    // Number of events currently readable
+    public int size() {
+        long next = nextSequence.get();
+        return (int) Math.min(next - floor, capacity());
+    }
+
+    public long totalAdded() {
+        return nextSequence.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Hides everything written so far without touching the slots
+    public void clear() {
+        floor = nextSequence.get();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.notification.util;
+
+import java.util.concurrent.TimeUnit;
+
+// Token bucket rate limiter. Callers reserve a token under a short lock and sleep outside it, so a
+// waiting thread never blocks others from reserving; reservations past the bucket simply queue up
+// in time order. A rate of zero or less disables limiting.
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    // Blocks until a token is available
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private long reserve() {
+        if (permitsPerNano <= 0) {
+            return 0;
+        }
+        synchronized (this) {
+            refill(System.nanoTime());
+            tokens -= 1;
+            // A negative balance is the backlog of reservations still waiting for their token
+            return tokens >= 0 ? 0 : (long) (-tokens / permitsPerNano);
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
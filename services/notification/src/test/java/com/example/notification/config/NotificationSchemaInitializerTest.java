@@ -0,0 +1,125 @@
+package com.example.notification.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationSchemaInitializerTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static EmbeddedPostgres postgres;
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationSchemaInitializer initializer;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        String database = "schema_" + DATABASES.incrementAndGet();
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + database);
+        DataSource dataSource = postgres.getDatabase("postgres", database);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        initializer = new NotificationSchemaInitializer(jdbcTemplate,
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+
+        // The table as ddl-auto created it before partitioning
+        jdbcTemplate.execute("""
+            CREATE TABLE notifications (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, user_id bigint,
+                email varchar(255) NOT NULL, subject varchar(255) NOT NULL, message text NOT NULL,
+                sent_at timestamp(6) NOT NULL, status varchar(255) NOT NULL, deferred_at timestamp(6), campaign_id bigint)
+            """);
+        jdbcTemplate.execute("""
+            CREATE TABLE campaign_recipients (campaign_id bigint NOT NULL, seq bigint NOT NULL,
+                email varchar(255) NOT NULL, name varchar(255), user_id bigint, PRIMARY KEY (campaign_id, seq))
+            """);
+        jdbcTemplate.execute("CREATE SEQUENCE notifications_seq INCREMENT BY 50");
+        LocalDateTime lastYear = LocalDateTime.now().minusYears(1);
+        for (int i = 0; i < 10; i++) {
+            jdbcTemplate.update("INSERT INTO notifications (email, subject, message, sent_at, status) VALUES ('a@example.com', 's', 'm', ?, 'SENT')",
+                lastYear.plusDays(i * 20L));
+        }
+    }
+
+    @Test
+    void attachesExistingTableAsLegacyPartition() {
+        initializer.migrate();
+
+        assertEquals("p", jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE relname = 'notifications'", String.class));
+        LocalDateTime nextMonth = LocalDate.now().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+        String bound = jdbcTemplate.queryForObject(
+            "SELECT pg_get_expr(relpartbound, oid) FROM pg_class WHERE relname = 'notifications_legacy'", String.class);
+        assertTrue(bound.contains("MINVALUE") && bound.contains(nextMonth.toLocalDate().toString()), bound);
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class));
+        assertEquals("PRIMARY KEY (id, sent_at)", jdbcTemplate.queryForObject(
+            "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conrelid = 'notifications'::regclass AND contype = 'p'",
+            String.class));
+        // The bound check stays on the legacy partition only
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pg_constraint WHERE conrelid = 'notifications'::regclass AND contype = 'c'", Integer.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT last_value FROM notifications_seq", Long.class) >= 10);
+        assertEquals("YES", jdbcTemplate.queryForObject("SELECT is_nullable FROM information_schema.columns "
+            + "WHERE table_name = 'notifications' AND column_name = 'message'", String.class));
+
+        // Rows past the legacy range land in the default partition until monthly ones exist
+        jdbcTemplate.update("INSERT INTO notifications (id, email, subject, sent_at, status) VALUES (1000, 'a@example.com', 's', ?, 'PENDING')",
+            nextMonth.plusDays(3));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications_default", Integer.class));
+    }
+
+    @Test
+    void migrationIsIdempotent() {
+        initializer.migrate();
+        initializer.migrate();
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'notifications'::regclass", Integer.class));
+    }
+
+    @Test
+    void recoversFromAnInterruptedConcurrentIndexBuild() {
+        // What a killed CREATE INDEX CONCURRENTLY leaves behind
+        jdbcTemplate.execute("CREATE UNIQUE INDEX notifications_legacy_pkey ON notifications (id, sent_at)");
+        jdbcTemplate.execute("UPDATE pg_index SET indisvalid = false WHERE indexrelid = 'notifications_legacy_pkey'::regclass");
+
+        initializer.migrate();
+
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+            "SELECT indisvalid FROM pg_index WHERE indexrelid = 'notifications_legacy_pkey'::regclass", Boolean.class));
+    }
+
+    @Test
+    void keepsTheFirstOfRepeatedCampaignRecipients() {
+        jdbcTemplate.update("INSERT INTO campaign_recipients (campaign_id, seq, email) VALUES "
+            + "(1, 0, 'a@example.com'), (1, 1, 'A@Example.com'), (1, 2, 'b@example.com'), (2, 0, 'a@example.com')");
+
+        initializer.migrate();
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM campaign_recipients", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM campaign_recipients WHERE seq = 1", Integer.class));
+        assertEquals(0, jdbcTemplate.update("INSERT INTO campaign_recipients (campaign_id, seq, email) "
+            + "VALUES (1, 3, 'B@EXAMPLE.COM') ON CONFLICT (campaign_id, lower(email)) DO NOTHING"));
+    }
+}
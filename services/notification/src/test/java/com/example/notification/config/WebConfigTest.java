@@ -0,0 +1,104 @@
+package com.example.notification.config;
+
+import com.example.notification.channel.ChannelDispatcher;
+import com.example.notification.controller.NotificationController;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.service.EmailService;
+import com.example.notification.service.EventBroadcasterService;
+import com.example.notification.service.EventTrackerService;
+import com.example.notification.service.KafkaConsumerMonitor;
+import com.example.notification.service.KafkaProducerService;
+import com.example.notification.service.NotificationCounterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@WebMvcTest(controllers = NotificationController.class, properties = "spring.cloud.config.enabled=false")
+@Import(WebConfig.class)
+class WebConfigTest {
+
+    private static final String DASHBOARD = "/notification-dashboard.html";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationRepository notificationRepository;
+    @MockBean
+    private EmailService emailService;
+    @MockBean
+    private EventTrackerService eventTrackerService;
+    @MockBean
+    private EventBroadcasterService eventBroadcasterService;
+    @MockBean
+    private KafkaProducerService kafkaProducerService;
+    @MockBean
+    private NotificationCounterService notificationCounterService;
+    @MockBean
+    private ChannelDispatcher channelDispatcher;
+    @MockBean
+    private KafkaConsumerMonitor kafkaConsumerMonitor;
+
+    @Test
+    void servesGzipVariantToClientsThatAcceptIt() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get(DASHBOARD)).andReturn().getResponse();
+        MockHttpServletResponse gzip = mockMvc.perform(get(DASHBOARD).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+            .andReturn().getResponse();
+
+        assertEquals(200, plain.getStatus());
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(200, gzip.getStatus());
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeader(HttpHeaders.VARY));
+        assertTrue(gzip.getContentType().startsWith("text/html"), gzip.getContentType());
+        assertTrue(gzip.getHeader(HttpHeaders.CACHE_CONTROL).contains("max-age=300"));
+        assertArrayEquals(plain.getContentAsByteArray(), gunzip(gzip.getContentAsByteArray()));
+        assertNotNull(gzip.getHeader(HttpHeaders.ETAG));
+        assertNotEquals(plain.getHeader(HttpHeaders.ETAG), gzip.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void answersRevalidationWithNotModified() throws Exception {
+        String etag = mockMvc.perform(get(DASHBOARD).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse revalidated = mockMvc.perform(get(DASHBOARD)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andReturn().getResponse();
+
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+    }
+
+    @Test
+    void dashboardEndpointForwardsToStaticFile() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/notifications/dashboard"))
+            .andReturn().getResponse();
+
+        assertEquals(DASHBOARD, response.getForwardedUrl());
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return in.readAllBytes();
+        }
+    }
+}
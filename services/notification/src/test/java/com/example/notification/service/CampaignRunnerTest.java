@@ -0,0 +1,80 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Campaign;
+import com.example.notification.model.CampaignRecipient;
+import com.example.notification.model.Notification;
+import com.example.notification.repository.CampaignRecipientRepository;
+import com.example.notification.repository.CampaignRepository;
+import com.example.notification.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CampaignRunnerTest {
+
+    private final CampaignRepository campaignRepository = mock(CampaignRepository.class);
+    private final CampaignRecipientRepository recipientRepository = mock(CampaignRecipientRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final CampaignRunner runner = new CampaignRunner(campaignRepository, recipientRepository, emailService,
+        mock(NotificationRepository.class), mock(EmailTemplateRenderer.class), mock(EmailDeliveryQueue.class),
+        new ObjectMapper(), 1, 2, 1, 60_000, 10, 0);
+
+    CampaignRunnerTest() {
+        when(campaignRepository.claim(eq(1L), any(), anyString(), any(), any())).thenReturn(1);
+        when(campaignRepository.renewLease(eq(1L), any(), anyString(), any())).thenReturn(1);
+        when(campaignRepository.findById(1L)).thenReturn(Optional.of(Campaign.builder()
+            .id(1L).subject("News").templateId("CAMPAIGN").templateParams("{}")
+            .status(Campaign.CampaignStatus.RUNNING).startedAt(LocalDateTime.now()).build()));
+        when(recipientRepository.findChunk(eq(1L), eq(0L), any())).thenReturn(List.of(
+            new CampaignRecipient(1L, 1L, "a@example.com", "A", null),
+            new CampaignRecipient(1L, 2L, "b@example.com", "B", null)));
+        when(recipientRepository.findChunk(eq(1L), eq(2L), any())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void stop() {
+        runner.stop();
+    }
+
+    @Test
+    void storedChunkAdvancesTheCheckpoint() {
+        when(emailService.sendEmails(any())).thenReturn(List.of(new Notification(), new Notification()));
+
+        runner.claim(1L);
+
+        verify(campaignRepository, timeout(5000)).transition(eq(1L), eq(Set.of(Campaign.CampaignStatus.RUNNING)),
+            eq(Campaign.CampaignStatus.COMPLETED), any(), isNull());
+        // Saved once or twice, depending on whether the chunk finished before the final save
+        verify(campaignRepository, atLeastOnce()).saveProgress(eq(1L), anyString(), eq(2L), eq(2L), eq(0L));
+    }
+
+    @Test
+    void unstoredNotificationFailsTheChunkWithoutMovingTheCheckpoint() {
+        when(emailService.sendEmails(any())).thenReturn(Arrays.asList(new Notification(), null));
+
+        runner.claim(1L);
+
+        verify(campaignRepository, timeout(5000)).transition(eq(1L), eq(Set.of(Campaign.CampaignStatus.RUNNING)),
+            eq(Campaign.CampaignStatus.FAILED), isNull(), anyString());
+        verify(campaignRepository).saveProgress(eq(1L), anyString(), eq(0L), eq(0L), eq(0L));
+        verify(campaignRepository, never()).saveProgress(eq(1L), anyString(), eq(2L), anyLong(), anyLong());
+    }
+}
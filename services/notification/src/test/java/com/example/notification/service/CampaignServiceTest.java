@@ -0,0 +1,35 @@
+package com.example.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CampaignServiceTest {
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("a@example.com", "Ann", "42"), CampaignService.parseCsvLine("a@example.com,Ann,42"));
+    }
+
+    @Test
+    void quotedFieldsMayHoldCommas() {
+        assertEquals(List.of("a@example.com", "Lee, Ann", "42"), CampaignService.parseCsvLine("a@example.com,\"Lee, Ann\",42"));
+    }
+
+    @Test
+    void doubledQuotesAreLiteralQuotes() {
+        assertEquals(List.of("a@example.com", "Ann \"Nan\" Lee"),
+            CampaignService.parseCsvLine("a@example.com,\"Ann \"\"Nan\"\" Lee\""));
+        assertEquals(List.of("\""), CampaignService.parseCsvLine("\"\"\"\""));
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        assertEquals(List.of("a@example.com", "", ""), CampaignService.parseCsvLine("a@example.com,,"));
+        assertEquals(List.of("", "Ann"), CampaignService.parseCsvLine(",Ann"));
+        assertEquals(List.of("a@example.com", ""), CampaignService.parseCsvLine("a@example.com,\"\""));
+        assertEquals(List.of(""), CampaignService.parseCsvLine(""));
+    }
+}
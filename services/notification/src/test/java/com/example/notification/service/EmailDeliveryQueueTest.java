@@ -0,0 +1,83 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification.NotificationPriority;
+import com.example.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class EmailDeliveryQueueTest {
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+
+    @Test
+    void queuedEmailsAreDeferredAtShutdown() throws InterruptedException {
+        EmailDeliveryQueue queue = queueWithoutWorkers();
+        queue.enqueue(new EmailDeliveryQueue.EmailTask(1L, "a@example.com", "s", "b", NotificationPriority.HIGH));
+        queue.enqueue(new EmailDeliveryQueue.EmailTask(2L, "b@example.com", "s", "b", NotificationPriority.BULK));
+        queue.enqueue(new EmailDeliveryQueue.EmailTask(3L, "c@example.com", "s", "b", NotificationPriority.BULK));
+
+        queue.stop();
+
+        verify(repository).setDeferredAt(argThat(ids -> ids.size() == 3 && ids.containsAll(List.of(1L, 2L, 3L))),
+            notNull());
+    }
+
+    @Test
+    void emptyLanesDeferNothing() {
+        queueWithoutWorkers().stop();
+
+        verify(repository, never()).setDeferredAt(any(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void awaitCapacityWaitsForRoomInTheLane() throws InterruptedException {
+        EmailDeliveryQueue queue = queueWithoutWorkers();
+        queue.enqueue(new EmailDeliveryQueue.EmailTask(1L, "a@example.com", "s", "b", NotificationPriority.BULK));
+        int free = queue.remainingCapacity(NotificationPriority.BULK);
+
+        long started = System.nanoTime();
+        queue.awaitCapacity(NotificationPriority.BULK, free, 10);
+        assertTrue(System.nanoTime() - started < 1_000_000_000L);
+
+        Thread waiter = Thread.ofPlatform().start(() -> {
+            try {
+                queue.awaitCapacity(NotificationPriority.BULK, free + 1, 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.join(200);
+        assertTrue(waiter.isAlive());
+        // Draining the lane at shutdown empties it, which lets the waiter through
+        queue.stop();
+        waiter.join(1000);
+        assertFalse(waiter.isAlive());
+    }
+
+    // No workers, so tasks stay queued until stop()
+    private EmailDeliveryQueue queueWithoutWorkers() {
+        MockEnvironment environment = new MockEnvironment();
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            environment.setProperty("application.config.email.lanes." + priority.name().toLowerCase() + ".workers", "0");
+        }
+        EmailDeliveryQueue queue = new EmailDeliveryQueue(mock(JavaMailSender.class), mock(NotificationStatusWriter.class),
+            repository, mock(KafkaListenerEndpointRegistry.class), environment, new SimpleMeterRegistry());
+        queue.start();
+        return queue;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import com.example.notification.repository.CampaignRepository;
+import com.example.notification.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailServiceTest {
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final EmailDeliveryQueue queue = mock(EmailDeliveryQueue.class);
+    private final EmailService emailService = new EmailService(repository, mock(IdempotencyService.class),
+        transactionTemplate, queue, mock(NotificationCounterService.class), mock(EmailTemplateRenderer.class), new ObjectMapper(),
+        mock(CampaignRepository.class));
+
+    EmailServiceTest() {
+        ReflectionTestUtils.setField(emailService, "deferredBatchSize", 500);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(queue.remainingCapacity(Notification.NotificationPriority.BULK)).thenReturn(10);
+        when(repository.lockDeferred(any(), anyInt())).thenReturn(List.of(notification(1L), notification(2L)));
+    }
+
+    @AfterEach
+    void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    @Test
+    void deferredAtIsClearedOnlyForQueuedNotifications() throws InterruptedException {
+        when(queue.enqueue(any())).thenAnswer(invocation ->
+            ((EmailDeliveryQueue.EmailTask) invocation.getArgument(0)).notificationId() == 1L);
+
+        emailService.requeueDeferred();
+
+        // Claimed with a future deferred_at, then cleared for the one that made it into the lane
+        verify(repository).setDeferredAt(eq(List.of(1L, 2L)), notNull());
+        verify(repository).setDeferredAt(eq(List.of(1L)), isNull());
+        verify(repository).setDeferredAt(eq(List.of(2L)), notNull());
+    }
+
+    @Test
+    void interruptedEnqueueDefersAndKeepsTheInterrupt() throws InterruptedException {
+        when(queue.enqueue(any())).thenThrow(new InterruptedException());
+
+        emailService.requeueDeferred();
+
+        assertTrue(Thread.currentThread().isInterrupted());
+        verify(repository, never()).setDeferredAt(any(), isNull());
+        // Once for the claim, once to hand them back to the next sweep
+        verify(repository, times(2)).setDeferredAt(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void strandedPendingRowsAreReclaimedAfterDeferredOnes() throws InterruptedException {
+        ReflectionTestUtils.setField(emailService, "strandedAfterMs", 900_000L);
+        when(repository.lockStranded(any(), eq(8))).thenReturn(List.of(notification(3L)));
+        when(queue.enqueue(any())).thenReturn(true);
+
+        LocalDateTime before = LocalDateTime.now();
+        emailService.requeueDeferred();
+
+        ArgumentCaptor<LocalDateTime> createdBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).lockStranded(createdBefore.capture(), eq(8));
+        assertTrue(createdBefore.getValue().isBefore(before.minusMinutes(14)));
+        verify(repository).setDeferredAt(eq(List.of(1L, 2L, 3L)), isNull());
+    }
+
+    @Test
+    void databaseOutageIsThrownInsteadOfDroppingTheBatch() {
+        when(repository.saveAll(any())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> emailService.sendEmails(List.of(request())));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void rowFailingDuringOutageIsThrown() {
+        when(repository.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.save(any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> emailService.sendEmails(List.of(request())));
+    }
+
+    @Test
+    void duplicateRowComesBackAsNull() throws InterruptedException {
+        when(repository.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.save(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            if (notification.getEmail().startsWith("dup")) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            notification.setId(7L);
+            return notification;
+        });
+        when(queue.enqueue(any())).thenReturn(true);
+
+        List<Notification> saved = emailService.sendEmails(List.of(
+            new EmailService.EmailRequest("dup@example.com", "Statement", "<p>body</p>", 1L), request()));
+
+        assertNull(saved.get(0));
+        assertEquals(7L, saved.get(1).getId());
+    }
+
+    private static EmailService.EmailRequest request() {
+        return new EmailService.EmailRequest("user@example.com", "Statement", "<p>body</p>", 1L);
+    }
+
+    private static Notification notification(Long id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setEmail("user" + id + "@example.com");
+        notification.setSubject("Statement");
+        notification.setMessage("<p>body</p>");
+        notification.setPriority(Notification.NotificationPriority.BULK);
+        return notification;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.notification.service;
+
+import com.example.notification.event.TransactionEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Run with: mvn test -Dtest=EmailTemplateRendererBenchmarkTest -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmailTemplateRendererBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void renderCostPerMessage() {
+        EmailTemplateRenderer renderer = new EmailTemplateRenderer("", 0, Locale.ENGLISH);
+        TransactionEvent event = new TransactionEvent();
+        event.setTransactionReference("TXN-20240101-000042");
+        event.setAmount(new BigDecimal("1250.00"));
+        event.setType("DEPOSIT");
+        event.setStatus("COMPLETED");
+        Map<String, Object> params = EmailParams.transaction(event);
+
+        long chars = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            chars += renderer.render(EmailTemplate.TRANSACTION, params).length();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            chars += renderer.render(EmailTemplate.TRANSACTION, params).length();
+        }
+        long nanosPerRender = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.printf("Transaction email render: %d ns/message (%d renders)%n", nanosPerRender, ITERATIONS);
+        assertTrue(chars > 0);
+    }
+}
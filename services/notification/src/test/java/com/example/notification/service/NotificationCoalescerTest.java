@@ -0,0 +1,126 @@
+package com.example.notification.service;
+
+import com.example.notification.event.TransactionEvent;
+import com.example.notification.model.DigestEntry;
+import com.example.notification.model.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationCoalescerTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final EmailTemplateRenderer renderer = mock(EmailTemplateRenderer.class);
+    private final IdempotencyService idempotencyService = mock(IdempotencyService.class);
+    private final NotificationPriorityClassifier classifier = mock(NotificationPriorityClassifier.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final NotificationCoalescer coalescer = new NotificationCoalescer(emailService, renderer,
+        idempotencyService, classifier, jdbcTemplate, new ObjectMapper().findAndRegisterModules());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(coalescer, "maxEvents", 50);
+        ReflectionTestUtils.setField(coalescer, "bypassStatuses", Set.of("FAILED"));
+        ReflectionTestUtils.setField(coalescer, "bypassTypes", Set.of());
+        when(classifier.transaction(any())).thenReturn(Notification.NotificationPriority.NORMAL);
+        when(renderer.render(any(), any())).thenReturn("<html/>");
+        when(idempotencyService.findProcessed(any())).thenReturn(Set.of());
+        when(emailService.sendEmails(anyList())).thenAnswer(invocation ->
+            ((List<?>) invocation.getArgument(0)).stream().map(request -> new Notification()).toList());
+    }
+
+    @Test
+    void firstEventOpensWindowAndLaterOnesAreStoredBeforeBeingKept() {
+        boolean[] deferred = coalescer.offer(
+            List.of(event("t1", "a@example.com", "COMPLETED"), event("t2", "a@example.com", "COMPLETED"),
+                event("t3", "b@example.com", "COMPLETED"), event("t4", "a@example.com", "FAILED")),
+            Arrays.asList("k1", "k2", "k3", "k4"));
+
+        // The first event per address and bypassed statuses are sent by the caller
+        assertArrayEquals(new boolean[]{false, true, false, false}, deferred);
+        ArgumentCaptor<List<Object[]>> stored = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), stored.capture());
+        assertEquals(1, stored.getValue().size());
+        assertEquals("k2", stored.getValue().get(0)[0]);
+        verify(emailService, never()).sendEmails(anyList());
+    }
+
+    @Test
+    void expiredWindowIsSentAsOneDigestAndItsEntriesDeleted() {
+        coalescer.offer(List.of(event("t1", "a@example.com", "COMPLETED"), event("t2", "a@example.com", "COMPLETED"),
+            event("t3", "a@example.com", "COMPLETED")), Arrays.asList("k1", "k2", "k3"));
+        ReflectionTestUtils.setField(coalescer, "windowMs", 0L);
+
+        coalescer.flushExpired();
+
+        ArgumentCaptor<List<EmailService.EmailRequest>> sent = ArgumentCaptor.forClass(List.class);
+        verify(emailService).sendEmails(sent.capture());
+        assertEquals(1, sent.getValue().size());
+        EmailService.EmailRequest digest = sent.getValue().get(0);
+        assertEquals(EmailTemplate.TRANSACTION_DIGEST, digest.template());
+        assertEquals(List.of("k2", "k3"), digest.eventKeys());
+
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("DELETE FROM digest_entries WHERE entry_key = ?"), deleted.capture());
+        assertEquals(List.of("k2", "k3"), deleted.getValue().stream().map(args -> args[0]).toList());
+    }
+
+    @Test
+    void entriesStayStoredWhenTheDigestCannotBeSaved() {
+        coalescer.offer(List.of(event("t1", "a@example.com", "COMPLETED"), event("t2", "a@example.com", "COMPLETED")),
+            Arrays.asList("k1", "k2"));
+        ReflectionTestUtils.setField(coalescer, "windowMs", 0L);
+        when(emailService.sendEmails(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        coalescer.flushExpired();
+
+        verify(jdbcTemplate, never()).batchUpdate(eq("DELETE FROM digest_entries WHERE entry_key = ?"), anyList());
+    }
+
+    @Test
+    void orphanedEntriesAreSentByTheSweep() {
+        String payload = "{\"transactionReference\":\"t9\",\"amount\":5,\"status\":\"COMPLETED\",\"email\":\"c@example.com\"}";
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).thenReturn(List.of(
+            new DigestEntry("k9", "c@example.com", 7L, payload, null)));
+
+        coalescer.flushExpired();
+
+        ArgumentCaptor<List<EmailService.EmailRequest>> sent = ArgumentCaptor.forClass(List.class);
+        verify(emailService).sendEmails(sent.capture());
+        assertEquals(List.of("k9"), sent.getValue().get(0).eventKeys());
+        assertEquals(EmailTemplate.TRANSACTION, sent.getValue().get(0).template());
+    }
+
+    private static TransactionEvent event(String reference, String email, String status) {
+        TransactionEvent event = new TransactionEvent();
+        event.setTransactionReference(reference);
+        event.setEmail(email);
+        event.setStatus(status);
+        event.setType("TRANSFER");
+        event.setAmount(BigDecimal.TEN);
+        event.setUserId(7L);
+        return event;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class NotificationRetentionServiceTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static EmbeddedPostgres postgres;
+
+    private final NotificationCounterService counters = mock(NotificationCounterService.class);
+    private final LocalDateTime currentMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        String database = "retention_" + DATABASES.incrementAndGet();
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + database);
+        DataSource dataSource = postgres.getDatabase("postgres", database);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        // The layout NotificationSchemaInitializer leaves: one old monthly partition plus the default
+        jdbcTemplate.execute("""
+            CREATE TABLE notifications (id bigint NOT NULL, email varchar(255) NOT NULL, sent_at timestamp(6) NOT NULL,
+                status varchar(255) NOT NULL, PRIMARY KEY (id, sent_at)) PARTITION BY RANGE (sent_at)
+            """);
+        jdbcTemplate.execute("CREATE TABLE notifications_default PARTITION OF notifications DEFAULT");
+        LocalDateTime expiredMonth = currentMonth.minusMonths(14);
+        jdbcTemplate.execute("CREATE TABLE notifications_old PARTITION OF notifications FOR VALUES FROM ('"
+            + expiredMonth + "') TO ('" + expiredMonth.plusMonths(1) + "')");
+        insert(1, expiredMonth.plusDays(1), "SENT");
+        insert(2, expiredMonth.plusDays(2), "SENT");
+        insert(3, expiredMonth.plusDays(3), "FAILED");
+    }
+
+    @Test
+    void createsUpcomingPartitionsOnStartupWithoutPurging() {
+        service(true).init();
+
+        // Monthly partitions from the end of the old one through two months ahead
+        List<String> partitions = partitions();
+        assertEquals(2 + 16, partitions.size());
+        assertTrue(partitions.contains(partitionName(currentMonth.minusMonths(13))));
+        assertTrue(partitions.contains(partitionName(currentMonth.plusMonths(2))));
+        assertFalse(partitions.contains(partitionName(currentMonth.plusMonths(3))));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class));
+    }
+
+    @Test
+    void movesRowsOutOfTheDefaultPartitionIntoANewRange() {
+        LocalDateTime nextMonth = currentMonth.plusMonths(1);
+        insert(10, nextMonth.plusDays(5), "PENDING");
+
+        service(true).init();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications_default", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partitionName(nextMonth), Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class));
+    }
+
+    @Test
+    void purgesExpiredPartitionsAndCountsTheirRows() {
+        service(true).scheduledMaintenance();
+
+        assertFalse(partitions().contains("notifications_old"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class));
+        verify(counters).recordRemoved(Notification.NotificationStatus.SENT, 2L);
+        verify(counters).recordRemoved(Notification.NotificationStatus.FAILED, 1L);
+    }
+
+    @Test
+    void purgeStillRunsWhenAPartitionCannotBeCreated() {
+        // A leftover table with the name of the next partition makes its creation fail
+        jdbcTemplate.execute("CREATE TABLE " + partitionName(currentMonth.minusMonths(13)) + " (id bigint)");
+
+        service(true).scheduledMaintenance();
+
+        assertFalse(partitions().contains("notifications_old"));
+        verify(counters).recordRemoved(Notification.NotificationStatus.SENT, 2L);
+    }
+
+    private NotificationRetentionService service(boolean purge) {
+        return new NotificationRetentionService(jdbcTemplate, transactionTemplate, counters, new SimpleMeterRegistry(),
+            purge, 12, 2, NotificationRetentionService.RetentionMode.DROP);
+    }
+
+    private void insert(long id, LocalDateTime sentAt, String status) {
+        jdbcTemplate.update("INSERT INTO notifications (id, email, sent_at, status) VALUES (?, 'a@example.com', ?, ?)", id, sentAt, status);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'notifications'::regclass ORDER BY c.relname", String.class);
+    }
+
+    private static String partitionName(LocalDateTime month) {
+        return "notifications_p%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import com.example.notification.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationStatusWriterTest {
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final NotificationCounterService counters = mock(NotificationCounterService.class);
+    private final NotificationStatusWriter writer = new NotificationStatusWriter(repository, counters);
+
+    @Test
+    void writesEachStatusInBatches() {
+        ReflectionTestUtils.setField(writer, "batchSize", 2);
+        List<Collection<Long>> written = new ArrayList<>();
+        when(repository.transitionStatus(any(), eq(Notification.NotificationStatus.PENDING), eq(Notification.NotificationStatus.SENT)))
+            .thenAnswer(invocation -> {
+                Collection<Long> ids = invocation.getArgument(0);
+                written.add(List.copyOf(ids));
+                return ids.size();
+            });
+
+        writer.record(1L, Notification.NotificationStatus.SENT);
+        writer.record(2L, Notification.NotificationStatus.FAILED);
+        writer.record(3L, Notification.NotificationStatus.SENT);
+        writer.record(4L, Notification.NotificationStatus.SENT);
+        writer.flush();
+
+        assertEquals(List.of(List.of(1L, 3L), List.of(4L)), written);
+        verify(repository).transitionStatus(List.of(2L), Notification.NotificationStatus.PENDING, Notification.NotificationStatus.FAILED);
+    }
+
+    @Test
+    void failedWriteIsRetriedOnNextFlushOnly() {
+        ReflectionTestUtils.setField(writer, "batchSize", 500);
+        when(repository.transitionStatus(any(), any(), any())).thenThrow(new RuntimeException("connection refused"));
+
+        writer.record(1L, Notification.NotificationStatus.SENT);
+        writer.record(2L, Notification.NotificationStatus.SENT);
+        writer.flush();
+
+        // One attempt per tick, not a loop over the re-queued ids
+        verify(repository, times(1)).transitionStatus(any(), any(), any());
+        verify(counters, never()).recordTransition(any(), any(), anyInt());
+
+        writer.flush();
+        verify(repository, times(2)).transitionStatus(any(), any(), any());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.notification.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int EXPECTED = 100_000;
+    private static final double TARGET_RATE = 0.01;
+
+    @Test
+    void everyInsertedKeyIsFound() {
+        BloomFilter filter = new BloomFilter(EXPECTED, TARGET_RATE);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.put("transaction:" + i + ":COMPLETED");
+        }
+        for (int i = 0; i < EXPECTED; i++) {
+            assertTrue(filter.mightContain("transaction:" + i + ":COMPLETED"), "lost key " + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTargetAtExpectedLoad() {
+        BloomFilter filter = new BloomFilter(EXPECTED, TARGET_RATE);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.put("transaction:" + i + ":COMPLETED");
+        }
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("account:" + i + ":CREATED")) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < TARGET_RATE * 1.5, "false-positive rate " + rate);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(EXPECTED, TARGET_RATE);
+        assertFalse(filter.mightContain("loan:1"));
+    }
+}
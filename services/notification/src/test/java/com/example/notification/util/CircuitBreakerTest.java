@@ -0,0 +1,60 @@
+package com.example.notification.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndClosesAfterTrial() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(3, 50);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.permitDelayMs() > 0);
+
+        Thread.sleep(60);
+        assertEquals(0, breaker.permitDelayMs());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Only one trial call at a time
+        assertTrue(breaker.permitDelayMs() > 0);
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.permitDelayMs());
+    }
+
+    @Test
+    void failedTrialReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 20);
+        breaker.onFailure();
+        Thread.sleep(30);
+        assertEquals(0, breaker.permitDelayMs());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.permitDelayMs() > 0);
+    }
+
+    @Test
+    void releasedTrialLetsTheNextTrialThrough() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 20);
+        breaker.onFailure();
+        Thread.sleep(30);
+        assertEquals(0, breaker.permitDelayMs());
+        assertTrue(breaker.permitDelayMs() > 0);
+
+        // The trial ended without telling success from failure
+        breaker.release();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(0, breaker.permitDelayMs());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.notification.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingBufferTest {
+
+    @Test
+    void returnsNewestFirstAndOverwritesOldest() {
+        EventRingBuffer<Long> buffer = new EventRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 10; i++) {
+            buffer.add(sequence -> sequence);
+        }
+
+        assertEquals(List.of(9L, 8L, 7L, 6L), buffer.latest(10));
+        assertEquals(List.of(9L, 8L), buffer.latest(2));
+        assertEquals(4, buffer.size());
+        assertEquals(10, buffer.totalAdded());
+    }
+
+    @Test
+    void clearHidesExistingEvents() {
+        EventRingBuffer<Long> buffer = new EventRingBuffer<>(8);
+        buffer.add(sequence -> sequence);
+        buffer.add(sequence -> sequence);
+        buffer.clear();
+        assertTrue(buffer.latest(8).isEmpty());
+
+        buffer.add(sequence -> sequence);
+        assertEquals(List.of(2L), buffer.latest(8));
+    }
+
+    @Test
+    void concurrentWritersGetUniqueSequences() throws InterruptedException {
+        EventRingBuffer<Long> buffer = new EventRingBuffer<>(1 << 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    buffer.add(sequence -> sequence);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Long> all = buffer.latest(40_000);
+        Set<Long> unique = new HashSet<>(all);
+        assertEquals(40_000, all.size());
+        assertEquals(40_000, unique.size());
+        assertEquals(39_999L, all.get(0));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.notification.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void burstIsServedImmediatelyThenPacedAtRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 5);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+        long burstMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(burstMs < 40, "burst took " + burstMs + " ms");
+
+        // Five more tokens at 20/s take about 250 ms
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(totalMs >= 200, "ten permits took only " + totalMs + " ms");
+    }
+
+    @Test
+    void zeroRateDoesNotLimit() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0, 1);
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            bucket.acquire();
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+    }
+}